@@ -0,0 +1,225 @@
+package pet.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pet.common.PageCursor;
+import pet.vo.CommunityPostVO;
+import pet.vo.CursorPageVO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * 社区动态流热点缓存
+ * <p>
+ * 只缓存时间线头部最新的若干条动态（已组装好的 VO），写操作就地更新而不是整体失效。
+ * 在事务中调用的写操作等事务提交后才更新缓存，回滚时丢弃。
+ * 游标落在缓存窗口之外时返回 null，由调用方回源数据库。
+ */
+@Component
+public class CommunityFeedCache {
+
+    private static final Comparator<CommunityPostVO> NEWEST_FIRST = Comparator
+            .comparing(CommunityPostVO::getCreateTime, Comparator.reverseOrder())
+            .thenComparing(CommunityPostVO::getId, Comparator.reverseOrder());
+
+    private final int capacity;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer rebuildTimer;
+    private final Object rebuildLock = new Object();
+
+    /**
+     * 当前快照，null 表示尚未加载
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 写操作版本号，用于丢弃与写操作并发的过期重建结果（由 this 保护）
+     */
+    private long version;
+
+    /**
+     * 已登记、尚未完成的事务内写操作数（由 this 保护）；不为 0 时重建结果可能已包含其中的修改，不安装
+     */
+    private int pending;
+
+    public CommunityFeedCache(MeterRegistry registry,
+                              @Value("${app.community.feed-cache-size:200}") int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        this.hits = Counter.builder("community.feed.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("community.feed.cache.requests").tag("result", "miss").register(registry);
+        this.rebuildTimer = Timer.builder("community.feed.cache.rebuild").register(registry);
+        Gauge.builder("community.feed.cache.size", this, c -> {
+            Snapshot s = c.snapshot;
+            return s == null ? 0 : s.posts().size();
+        }).register(registry);
+    }
+
+    /**
+     * 从缓存中读取一页
+     *
+     * @param after  游标，null 表示第一页
+     * @param size   每页条数
+     * @param loader 冷启动时按条数加载时间线头部
+     * @return 命中时返回分页结果，未命中返回 null
+     */
+    public CursorPageVO<CommunityPostVO> page(PageCursor after, int size, IntFunction<List<CommunityPostVO>> loader) {
+        Snapshot s = snapshot;
+        if (s == null) s = rebuild(loader);
+
+        List<CommunityPostVO> posts = s.posts();
+        int start = 0;
+        if (after != null) {
+            while (start < posts.size() && !isAfter(posts.get(start), after)) start++;
+        }
+        if (start + size < posts.size()) {
+            List<CommunityPostVO> page = List.copyOf(posts.subList(start, start + size));
+            CommunityPostVO last = page.get(page.size() - 1);
+            hits.increment();
+            return CursorPageVO.of(page, new PageCursor(last.getCreateTime(), last.getId()).encode());
+        }
+        if (s.complete()) {
+            hits.increment();
+            return CursorPageVO.of(List.copyOf(posts.subList(start, posts.size())), null);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 新动态发布后插入缓存
+     */
+    public void onPostCreated(CommunityPostVO post) {
+        afterCommit(() -> applyPostCreated(post));
+    }
+
+    /**
+     * 动态删除后从缓存中移除
+     */
+    public void onPostDeleted(Long postId) {
+        afterCommit(() -> applyPostDeleted(postId));
+    }
+
+    /**
+     * 评论数变化后更新缓存中的计数
+     */
+    public void onCommentCountChanged(Long postId, int delta) {
+        afterCommit(() -> applyCommentCountChanged(postId, delta));
+    }
+
+    /**
+     * 有事务时登记到提交之后执行（由 this 保护），否则立即执行
+     */
+    private void afterCommit(Runnable apply) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (this) {
+                version++;
+                apply.run();
+            }
+            return;
+        }
+        synchronized (this) {
+            version++;
+            pending++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (CommunityFeedCache.this) {
+                    pending--;
+                    version++;
+                    if (status == STATUS_COMMITTED) apply.run();
+                }
+            }
+        });
+    }
+
+    private void applyPostCreated(CommunityPostVO post) {
+        Snapshot s = snapshot;
+        if (s == null) return;
+        List<CommunityPostVO> posts = new ArrayList<>(s.posts());
+        if (posts.stream().anyMatch(p -> p.getId().equals(post.getId()))) return;
+        int idx = 0;
+        while (idx < posts.size() && NEWEST_FIRST.compare(posts.get(idx), post) < 0) idx++;
+        posts.add(idx, post);
+        boolean complete = s.complete();
+        if (posts.size() > capacity) {
+            posts.remove(posts.size() - 1);
+            complete = false;
+        }
+        snapshot = new Snapshot(List.copyOf(posts), complete);
+    }
+
+    private void applyPostDeleted(Long postId) {
+        Snapshot s = snapshot;
+        if (s == null) return;
+        List<CommunityPostVO> posts = new ArrayList<>(s.posts());
+        if (posts.removeIf(p -> p.getId().equals(postId))) {
+            snapshot = new Snapshot(List.copyOf(posts), s.complete());
+        }
+    }
+
+    /**
+     * 替换为新对象，不修改已发布的 VO
+     */
+    private void applyCommentCountChanged(Long postId, int delta) {
+        Snapshot s = snapshot;
+        if (s == null) return;
+        List<CommunityPostVO> posts = new ArrayList<>(s.posts());
+        for (int i = 0; i < posts.size(); i++) {
+            CommunityPostVO old = posts.get(i);
+            if (!old.getId().equals(postId)) continue;
+            CommunityPostVO vo = new CommunityPostVO();
+            vo.setId(old.getId());
+            vo.setContent(old.getContent());
+            vo.setImages(old.getImages());
+            vo.setThumbnails(old.getThumbnails());
+            vo.setAuthor(old.getAuthor());
+            vo.setCommentCount(Math.max((old.getCommentCount() == null ? 0 : old.getCommentCount()) + delta, 0));
+            vo.setImageCount(old.getImageCount());
+            vo.setCreateTime(old.getCreateTime());
+            posts.set(i, vo);
+            snapshot = new Snapshot(List.copyOf(posts), s.complete());
+            return;
+        }
+    }
+
+    private Snapshot rebuild(IntFunction<List<CommunityPostVO>> loader) {
+        synchronized (rebuildLock) {
+            Snapshot s = snapshot;
+            if (s != null) return s;
+            long startVersion;
+            boolean idle;
+            synchronized (this) {
+                startVersion = version;
+                idle = pending == 0;
+            }
+            List<CommunityPostVO> loaded = rebuildTimer.record(() -> loader.apply(capacity + 1));
+            boolean complete = loaded.size() <= capacity;
+            Snapshot fresh = new Snapshot(List.copyOf(complete ? loaded : loaded.subList(0, capacity)), complete);
+            synchronized (this) {
+                // 重建期间发生过写操作、或开始时有未完成的事务内写操作时，本次结果可能与之后的就地更新重复或冲突，
+                // 只用于当前请求，不安装
+                if (idle && version == startVersion) snapshot = fresh;
+            }
+            return fresh;
+        }
+    }
+
+    private static boolean isAfter(CommunityPostVO post, PageCursor cursor) {
+        int cmp = post.getCreateTime().compareTo(cursor.time());
+        return cmp < 0 || (cmp == 0 && post.getId() < cursor.id());
+    }
+
+    private record Snapshot(List<CommunityPostVO> posts, boolean complete) {
+    }
+}
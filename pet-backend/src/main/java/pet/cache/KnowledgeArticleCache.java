@@ -0,0 +1,114 @@
+package pet.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import pet.common.Result;
+import pet.vo.KnowledgeArticleVO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 文章详情响应缓存
+ * <p>
+ * 按文章ID + 版本缓存序列化好的 {@code Result<KnowledgeArticleVO>} JSON 及其 ETag，命中时不读正文、不经过 Jackson；
+ * 容量受限并按 LRU 淘汰。版本为文章与所属分类的 update_time（两列均为 ON UPDATE CURRENT_TIMESTAMP）中较晚的一个，
+ * 调用方每次按主键查出当前版本，与缓存的版本不同即重新渲染，因此不经过管理端的写入（直接执行 SQL 等）也不会返回旧内容。
+ * update_time 精确到秒，同一秒内的多次修改依赖管理端调用 {@link #evict(Long)}、{@link #clear()} 失效。
+ */
+@Component
+public class KnowledgeArticleCache {
+
+    /**
+     * 已渲染的响应体，ETag 由版本和内容摘要组成
+     */
+    public record Rendered(byte[] json, String etag) {
+    }
+
+    private record Entry(LocalDateTime version, Rendered rendered) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final LinkedHashMap<Long, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * 失效次数，用于丢弃与失效并发的过期渲染结果（由 this 保护）
+     */
+    private long evictions;
+
+    public KnowledgeArticleCache(ObjectMapper objectMapper,
+                                 MeterRegistry registry,
+                                 @Value("${app.cache.article-detail-size:1000}") int maxSize) {
+        this.objectMapper = objectMapper;
+        int capacity = Math.max(maxSize, 1);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.hits = Counter.builder("knowledge.article.cache").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("knowledge.article.cache").tag("result", "miss").register(registry);
+    }
+
+    /**
+     * 取已渲染的文章详情，未命中或版本不同时调用 loader 加载并渲染
+     *
+     * @param version 文章当前版本，须在调用 loader 之前查出（加载到的内容只会比它新，下次请求时按新版本重新渲染）
+     * @param loader  加载文章详情，文章不存在时抛出异常（不缓存）
+     */
+    public Rendered get(Long id, LocalDateTime version, Function<Long, KnowledgeArticleVO> loader) {
+        long startEvictions;
+        synchronized (this) {
+            Entry e = entries.get(id);
+            if (e != null && e.version().equals(version)) {
+                hits.increment();
+                return e.rendered();
+            }
+            startEvictions = evictions;
+        }
+        misses.increment();
+        Rendered r = render(loader.apply(id), version);
+        synchronized (this) {
+            if (evictions == startEvictions) entries.put(id, new Entry(version, r));
+        }
+        return r;
+    }
+
+    /**
+     * 文章修改或删除后调用
+     */
+    public synchronized void evict(Long id) {
+        evictions++;
+        entries.remove(id);
+    }
+
+    /**
+     * 分类名称等公共字段变更后调用
+     */
+    public synchronized void clear() {
+        evictions++;
+        entries.clear();
+    }
+
+    private Rendered render(KnowledgeArticleVO vo, LocalDateTime version) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(Result.success(vo));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("文章序列化失败", e);
+        }
+        long versionMillis = version.toInstant(ZoneOffset.UTC).toEpochMilli();
+        return new Rendered(json, "\"" + Long.toHexString(versionMillis) + "-" + DigestUtils.md5DigestAsHex(json) + "\"");
+    }
+}
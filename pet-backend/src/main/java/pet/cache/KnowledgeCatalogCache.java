@@ -0,0 +1,140 @@
+package pet.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import pet.entity.KnowledgeArticle;
+import pet.entity.KnowledgeCategory;
+import pet.mapper.KnowledgeArticleMapper;
+import pet.mapper.KnowledgeCategoryMapper;
+import pet.vo.KnowledgeArticleVO;
+import pet.vo.KnowledgeCategoryVO;
+
+import java.util.*;
+
+/**
+ * 养护知识目录快照（分类列表 + 文章列表摘要）
+ * <p>
+ * 首次访问时从数据库加载，之后公开浏览全部走内存；分类和文章由管理员维护，
+ * 管理端每次增删改后调用 {@link #reload()} 整体重建并原子替换快照。
+ * 快照中的 VO 为共享对象，调用方不得修改。
+ */
+@Component
+public class KnowledgeCatalogCache {
+
+    private final KnowledgeCategoryMapper categoryMapper;
+    private final KnowledgeArticleMapper articleMapper;
+    private final Timer reloadTimer;
+
+    private volatile Snapshot snapshot;
+
+    public KnowledgeCatalogCache(KnowledgeCategoryMapper categoryMapper,
+                                 KnowledgeArticleMapper articleMapper,
+                                 MeterRegistry registry) {
+        this.categoryMapper = categoryMapper;
+        this.articleMapper = articleMapper;
+        this.reloadTimer = Timer.builder("knowledge.catalog.reload").register(registry);
+    }
+
+    /**
+     * 全部分类，按 sort 倒序、ID 正序
+     */
+    public List<KnowledgeCategoryVO> categories() {
+        return current().categories();
+    }
+
+    /**
+     * 分类名称，分类不存在时返回 null
+     */
+    public String categoryName(Long categoryId) {
+        KnowledgeCategoryVO c = current().categoryById().get(categoryId);
+        return c == null ? null : c.getName();
+    }
+
+    /**
+     * 文章列表摘要（不含正文），按发布时间倒序
+     *
+     * @param categoryId 分类过滤，null 表示全部
+     */
+    public List<KnowledgeArticleVO> articles(Long categoryId) {
+        Snapshot s = current();
+        if (categoryId == null) return s.articles();
+        return s.articlesByCategory().getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * 按给定ID顺序取文章摘要，不存在的ID跳过
+     */
+    public List<KnowledgeArticleVO> articlesByIds(List<Long> ids) {
+        Map<Long, KnowledgeArticleVO> byId = current().articleById();
+        List<KnowledgeArticleVO> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            KnowledgeArticleVO vo = byId.get(id);
+            if (vo != null) result.add(vo);
+        }
+        return result;
+    }
+
+    /**
+     * 从数据库重建快照，管理端修改分类或文章后调用
+     */
+    public synchronized void reload() {
+        snapshot = reloadTimer.record(this::load);
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null) return s;
+        synchronized (this) {
+            if (snapshot == null) reload();
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        LambdaQueryWrapper<KnowledgeCategory> cqw = new LambdaQueryWrapper<>();
+        cqw.orderByDesc(KnowledgeCategory::getSort).orderByAsc(KnowledgeCategory::getId);
+        List<KnowledgeCategoryVO> categories = new ArrayList<>();
+        Map<Long, KnowledgeCategoryVO> categoryById = new HashMap<>();
+        for (KnowledgeCategory c : categoryMapper.selectList(cqw)) {
+            KnowledgeCategoryVO vo = new KnowledgeCategoryVO();
+            vo.setId(c.getId());
+            vo.setName(c.getName());
+            vo.setSort(c.getSort());
+            categories.add(vo);
+            categoryById.put(vo.getId(), vo);
+        }
+
+        LambdaQueryWrapper<KnowledgeArticle> aqw = KnowledgeArticleMapper.listQuery();
+        aqw.orderByDesc(KnowledgeArticle::getCreateTime).orderByDesc(KnowledgeArticle::getId);
+        List<KnowledgeArticleVO> articles = new ArrayList<>();
+        Map<Long, KnowledgeArticleVO> articleById = new HashMap<>();
+        Map<Long, List<KnowledgeArticleVO>> byCategory = new HashMap<>();
+        for (KnowledgeArticle a : articleMapper.selectList(aqw)) {
+            KnowledgeCategoryVO c = categoryById.get(a.getCategoryId());
+            KnowledgeArticleVO vo = new KnowledgeArticleVO();
+            vo.setId(a.getId());
+            vo.setCategoryId(a.getCategoryId());
+            vo.setCategoryName(c == null ? null : c.getName());
+            vo.setTitle(a.getTitle());
+            vo.setSummary(a.getSummary());
+            vo.setCover(a.getCover());
+            vo.setCreateTime(a.getCreateTime());
+            articles.add(vo);
+            articleById.put(vo.getId(), vo);
+            byCategory.computeIfAbsent(vo.getCategoryId(), k -> new ArrayList<>()).add(vo);
+        }
+        byCategory.replaceAll((k, v) -> List.copyOf(v));
+
+        return new Snapshot(List.copyOf(categories), Map.copyOf(categoryById),
+                List.copyOf(articles), Map.copyOf(articleById), Map.copyOf(byCategory));
+    }
+
+    private record Snapshot(List<KnowledgeCategoryVO> categories,
+                            Map<Long, KnowledgeCategoryVO> categoryById,
+                            List<KnowledgeArticleVO> articles,
+                            Map<Long, KnowledgeArticleVO> articleById,
+                            Map<Long, List<KnowledgeArticleVO>> articlesByCategory) {
+    }
+}
@@ -0,0 +1,70 @@
+package pet.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pet.mapper.PetMapper;
+import pet.upload.ImageVariants;
+import pet.vo.PetOverviewVO;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按用户缓存宠物列表页数据（宠物 + 记录数 + 最近一条健康记录）
+ * <p>
+ * 未命中时用一次分组查询加载，容量受限并按 LRU 淘汰。
+ * 宠物档案或健康记录变更时需调用 {@link #evict(Long)}。
+ */
+@Component
+public class PetOverviewCache {
+
+    private final PetMapper petMapper;
+    private final LinkedHashMap<Long, List<PetOverviewVO>> entries;
+
+    /**
+     * 失效次数，用于丢弃与失效并发的过期加载结果（由 this 保护）
+     */
+    private long evictions;
+
+    public PetOverviewCache(PetMapper petMapper,
+                            @Value("${app.cache.pet-overview-size:10000}") int maxSize) {
+        this.petMapper = petMapper;
+        int capacity = Math.max(maxSize, 1);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<PetOverviewVO>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * 获取用户的宠物列表页数据，返回不可修改的列表
+     */
+    public List<PetOverviewVO> get(Long userId) {
+        long startEvictions;
+        synchronized (this) {
+            List<PetOverviewVO> cached = entries.get(userId);
+            if (cached != null) return cached;
+            startEvictions = evictions;
+        }
+        List<PetOverviewVO> loaded = petMapper.selectOverview(userId);
+        for (PetOverviewVO vo : loaded) {
+            vo.setPhotoThumbnail(ImageVariants.url(vo.getPhoto(), ImageVariants.SMALL));
+        }
+        loaded = List.copyOf(loaded);
+        synchronized (this) {
+            if (evictions == startEvictions) entries.put(userId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 宠物档案或健康记录增删改后调用
+     */
+    public synchronized void evict(Long userId) {
+        evictions++;
+        entries.remove(userId);
+    }
+}
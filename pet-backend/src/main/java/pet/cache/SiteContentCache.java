@@ -0,0 +1,107 @@
+package pet.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import pet.entity.Announcement;
+import pet.entity.SiteConfig;
+import pet.mapper.AnnouncementMapper;
+import pet.mapper.SiteConfigMapper;
+import pet.vo.AnnouncementVO;
+import pet.vo.SiteConfigVO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 站点配置与有效公告的本地缓存
+ * <p>
+ * 页头、页脚和公告栏在每次页面加载时都会读取，这里只在首次访问时查库，之后直接返回内存中的数据；
+ * 管理端修改配置或公告后分别调用 {@link #refreshSiteConfig()}、{@link #refreshAnnouncements()} 重新加载。
+ * 返回的 VO 为共享对象，调用方不得修改。
+ */
+@Component
+@RequiredArgsConstructor
+public class SiteContentCache {
+
+    /**
+     * 缓存的有效公告条数，与 listActive 的上限一致
+     */
+    public static final int ANNOUNCEMENT_LIMIT = 100;
+
+    private final SiteConfigMapper siteConfigMapper;
+    private final AnnouncementMapper announcementMapper;
+
+    private volatile ConfigEntry siteConfig;
+    private volatile List<AnnouncementVO> announcements;
+
+    /**
+     * 站点配置，未初始化时返回 null
+     */
+    public SiteConfigVO siteConfig() {
+        ConfigEntry e = siteConfig;
+        if (e == null) {
+            synchronized (this) {
+                if (siteConfig == null) refreshSiteConfig();
+                e = siteConfig;
+            }
+        }
+        return e.value();
+    }
+
+    /**
+     * 有效公告，按发布时间倒序，最多 {@link #ANNOUNCEMENT_LIMIT} 条
+     */
+    public List<AnnouncementVO> announcements() {
+        List<AnnouncementVO> list = announcements;
+        if (list == null) {
+            synchronized (this) {
+                if (announcements == null) refreshAnnouncements();
+                list = announcements;
+            }
+        }
+        return list;
+    }
+
+    public synchronized void refreshSiteConfig() {
+        SiteConfig cfg = siteConfigMapper.selectById(1L);
+        siteConfig = new ConfigEntry(cfg == null ? null : toVO(cfg));
+    }
+
+    public synchronized void refreshAnnouncements() {
+        LambdaQueryWrapper<Announcement> qw = new LambdaQueryWrapper<>();
+        qw.eq(Announcement::getStatus, 0);
+        qw.orderByDesc(Announcement::getCreateTime).last("limit " + ANNOUNCEMENT_LIMIT);
+        List<AnnouncementVO> list = new ArrayList<>();
+        for (Announcement a : announcementMapper.selectList(qw)) list.add(toVO(a));
+        announcements = List.copyOf(list);
+    }
+
+    private SiteConfigVO toVO(SiteConfig cfg) {
+        SiteConfigVO vo = new SiteConfigVO();
+        vo.setId(cfg.getId());
+        vo.setSiteName(cfg.getSiteName());
+        vo.setLogo(cfg.getLogo());
+        vo.setContactEmail(cfg.getContactEmail());
+        vo.setContactPhone(cfg.getContactPhone());
+        vo.setIcp(cfg.getIcp());
+        vo.setFooterText(cfg.getFooterText());
+        return vo;
+    }
+
+    private AnnouncementVO toVO(Announcement a) {
+        AnnouncementVO vo = new AnnouncementVO();
+        vo.setId(a.getId());
+        vo.setTitle(a.getTitle());
+        vo.setContent(a.getContent());
+        vo.setStatus(a.getStatus());
+        vo.setCreateTime(a.getCreateTime());
+        return vo;
+    }
+
+    /**
+     * 区分“尚未加载”与“配置行不存在”
+     */
+    private record ConfigEntry(SiteConfigVO value) {
+    }
+}
@@ -0,0 +1,104 @@
+package pet.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pet.entity.User;
+import pet.mapper.UserMapper;
+import pet.upload.ImageVariants;
+import pet.vo.CommunityUserVO;
+
+import java.util.*;
+
+/**
+ * 用户摘要（昵称、头像）缓存
+ * <p>
+ * 按用户ID缓存组装 {@link CommunityUserVO} 所需的字段，容量受限并按 LRU 淘汰；
+ * 未命中的ID合并为一次批量查询。用户资料变更时需调用 {@link #evict(Long)}。
+ */
+@Component
+public class UserSummaryCache {
+
+    private final UserMapper userMapper;
+    private final LinkedHashMap<Long, Summary> entries;
+
+    /**
+     * 失效次数，用于丢弃与失效并发的过期加载结果（由 this 保护）
+     */
+    private long evictions;
+
+    public UserSummaryCache(UserMapper userMapper,
+                            @Value("${app.cache.user-summary-size:10000}") int maxSize) {
+        this.userMapper = userMapper;
+        int capacity = Math.max(maxSize, 1);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Summary> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * 获取单个用户摘要，用户不存在时只填充ID
+     */
+    public CommunityUserVO get(Long userId) {
+        return getAll(Collections.singleton(userId)).get(userId);
+    }
+
+    /**
+     * 批量获取用户摘要，返回的 Map 包含所有请求的ID
+     */
+    public Map<Long, CommunityUserVO> getAll(Collection<Long> userIds) {
+        Map<Long, CommunityUserVO> result = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) return result;
+
+        Set<Long> missing = new HashSet<>();
+        long startEvictions;
+        synchronized (this) {
+            startEvictions = evictions;
+            for (Long id : userIds) {
+                Summary s = entries.get(id);
+                if (s != null) result.put(id, s.toVO());
+                else missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) return result;
+
+        LambdaQueryWrapper<User> qw = new LambdaQueryWrapper<>();
+        qw.select(User::getId, User::getNickname, User::getAvatar).in(User::getId, missing);
+        List<Summary> loaded = new ArrayList<>();
+        for (User u : userMapper.selectList(qw)) {
+            loaded.add(new Summary(u.getId(), u.getNickname(), u.getAvatar()));
+        }
+        synchronized (this) {
+            if (evictions == startEvictions) {
+                for (Summary s : loaded) entries.put(s.id(), s);
+            }
+        }
+        for (Summary s : loaded) result.put(s.id(), s.toVO());
+        for (Long id : missing) {
+            result.computeIfAbsent(id, k -> new Summary(k, null, null).toVO());
+        }
+        return result;
+    }
+
+    /**
+     * 用户昵称、头像等资料变更后调用
+     */
+    public synchronized void evict(Long userId) {
+        evictions++;
+        entries.remove(userId);
+    }
+
+    private record Summary(Long id, String nickname, String avatar) {
+        CommunityUserVO toVO() {
+            CommunityUserVO vo = new CommunityUserVO();
+            vo.setId(id);
+            vo.setNickname(nickname);
+            vo.setAvatar(avatar);
+            vo.setAvatarThumbnail(ImageVariants.url(avatar, ImageVariants.SMALL));
+            return vo;
+        }
+    }
+}
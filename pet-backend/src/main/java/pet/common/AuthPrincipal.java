@@ -0,0 +1,19 @@
+package pet.common;
+
+/**
+ * 已认证用户的权限信息（只包含权限校验需要的字段）
+ *
+ * @param id     用户ID
+ * @param role   用户角色：user/admin
+ * @param status 账号状态：0-正常，1-封禁
+ */
+public record AuthPrincipal(Long id, String role, Integer status) {
+
+    public boolean isBanned() {
+        return status != null && status == 1;
+    }
+
+    public boolean isAdmin() {
+        return "admin".equals(role);
+    }
+}
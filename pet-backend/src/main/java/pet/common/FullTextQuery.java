@@ -0,0 +1,84 @@
+package pet.common;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 全文检索关键词（对应 MySQL ngram 分词的 FULLTEXT 索引）
+ * <p>
+ * 关键词按空白拆分，每个词都必须出现：多字词作为短语匹配，单字词用前缀通配
+ * （ngram 索引中不存在单字 token）。
+ */
+public record FullTextQuery(List<String> terms) {
+
+    /**
+     * BOOLEAN MODE 的运算符，出现在用户输入中时直接去掉
+     */
+    private static final Pattern OPERATORS = Pattern.compile("[+\\-<>()~*\"@]");
+
+    /**
+     * 解析关键词，没有有效词时返回 null
+     */
+    public static FullTextQuery parse(String keyword) {
+        if (keyword == null || keyword.isBlank()) return null;
+        List<String> terms = new ArrayList<>();
+        for (String raw : keyword.trim().split("\\s+")) {
+            String term = OPERATORS.matcher(raw).replaceAll("");
+            if (!term.isEmpty() && !terms.contains(term)) terms.add(term);
+        }
+        return terms.isEmpty() ? null : new FullTextQuery(List.copyOf(terms));
+    }
+
+    /**
+     * 用于 WHERE 过滤的 BOOLEAN MODE 表达式
+     */
+    public String booleanQuery() {
+        StringBuilder sb = new StringBuilder();
+        for (String term : terms) {
+            if (!sb.isEmpty()) sb.append(' ');
+            if (term.codePointCount(0, term.length()) < 2) sb.append('+').append(term).append('*');
+            else sb.append("+\"").append(term).append('"');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 用于相关度排序的 NATURAL LANGUAGE MODE 文本
+     */
+    public String naturalQuery() {
+        return String.join(" ", terms);
+    }
+
+    /**
+     * 截取摘要时定位的词
+     */
+    public String anchor() {
+        return terms.get(0);
+    }
+
+    /**
+     * 对摘要做 HTML 转义，并用 &lt;mark&gt; 标出命中的关键词
+     */
+    public String highlight(String text) {
+        if (text == null || text.isEmpty()) return text;
+        StringBuilder alternation = new StringBuilder();
+        for (String term : terms) {
+            if (!alternation.isEmpty()) alternation.append('|');
+            alternation.append(Pattern.quote(term));
+        }
+        Matcher m = Pattern.compile(alternation.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE).matcher(text);
+        StringBuilder sb = new StringBuilder();
+        int last = 0;
+        while (m.find()) {
+            sb.append(HtmlUtils.htmlEscape(text.substring(last, m.start())))
+                    .append("<mark>").append(HtmlUtils.htmlEscape(m.group())).append("</mark>");
+            last = m.end();
+        }
+        sb.append(HtmlUtils.htmlEscape(text.substring(last)));
+        return sb.toString();
+    }
+}
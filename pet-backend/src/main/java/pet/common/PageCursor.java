@@ -0,0 +1,39 @@
+package pet.common;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页令牌（排序键 createTime + id）
+ * <p>
+ * 对外暴露为不透明的 Base64 字符串，客户端只需原样回传。
+ */
+public record PageCursor(LocalDateTime time, Long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * 编码为令牌
+     */
+    public String encode() {
+        String raw = time + "|" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析令牌，为空时返回 null（表示从头开始）
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(DECODER.decode(token.trim()), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf('|');
+            if (idx <= 0) throw new IllegalArgumentException(raw);
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, idx)), Long.parseLong(raw.substring(idx + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("分页游标不合法");
+        }
+    }
+}
@@ -2,6 +2,8 @@ package pet.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
@@ -13,11 +15,12 @@ import org.springframework.web.filter.CorsFilter;
 public class CorsConfig {
 
     /**
-     * 配置跨域过滤器
+     * 配置跨域过滤器（排在限流、令牌等过滤器之前，被拒绝的响应也带跨域头）
      *
      * @return 跨域过滤器
      */
     @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
     public CorsFilter corsFilter() {
         CorsConfiguration config = new CorsConfiguration();
         // 允许所有来源
@@ -1,24 +1,49 @@
 package pet.config;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import pet.upload.UploadEtagGenerator;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 
+/**
+ * 上传文件静态资源映射
+ * <p>
+ * 上传文件按内容或 UUID 命名，写入后不再修改，因此按 immutable 长期缓存；
+ * 同时返回内容摘要 ETag，支持 304 协商与 Range 分段请求（由 ResourceHttpRequestHandler 处理）。
+ */
 @Configuration
+@RequiredArgsConstructor
 public class UploadResourceConfig implements WebMvcConfigurer {
 
+    private final UploadEtagGenerator uploadEtagGenerator;
+
     @Value("${app.upload-dir:uploads}")
     private String uploadDir;
 
+    @Value("${app.upload.cache-max-age-days:365}")
+    private long cacheMaxAgeDays;
+
+    @Bean
+    public CacheControl uploadCacheControl() {
+        return CacheControl.maxAge(Duration.ofDays(cacheMaxAgeDays)).cachePublic().immutable();
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
         String location = uploadPath.toUri().toString();
-        registry.addResourceHandler("/uploads/**").addResourceLocations(location.endsWith("/") ? location : location + "/");
+        registry.addResourceHandler("/uploads/**")
+                .addResourceLocations(location.endsWith("/") ? location : location + "/")
+                .setCacheControl(uploadCacheControl())
+                .setEtagGenerator(uploadEtagGenerator)
+                .resourceChain(true);
     }
 }
-
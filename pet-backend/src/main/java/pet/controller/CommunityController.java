@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
@@ -20,6 +21,7 @@ import pet.dto.CommunityCommentCreateDTO;
 import pet.service.CommunityService;
 import pet.vo.CommunityCommentVO;
 import pet.vo.CommunityPostVO;
+import pet.vo.CursorPageVO;
 
 @RestController
 @RequestMapping("/api/community")
@@ -44,8 +46,9 @@ public class CommunityController {
     }
 
     /**
-     * 动态列表
+     * 动态列表（只返回最新的一批，已由 /feed 取代，保留给旧客户端）
      */
+    @Deprecated
     @GetMapping("/posts")
     public Result<List<CommunityPostVO>> listPosts(
             @RequestHeader(value = "X-User-Id", required = false) Long userId) {
@@ -56,6 +59,21 @@ public class CommunityController {
         }
     }
 
+    /**
+     * 动态流（游标分页）
+     */
+    @GetMapping("/feed")
+    public Result<CursorPageVO<CommunityPostVO>> listFeed(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+        try {
+            return Result.success(communityService.listFeed(userId, cursor, size));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 删除动态（仅允许删除自己的动态）
      */
@@ -72,8 +90,9 @@ public class CommunityController {
     }
 
     /**
-     * 获取评论列表
+     * 评论列表（只返回最早的一页，已由 /comments/page 取代，保留给旧客户端）
      */
+    @Deprecated
     @GetMapping("/posts/{postId}/comments")
     public Result<List<CommunityCommentVO>> listComments(
             @RequestHeader(value = "X-User-Id", required = false) Long userId,
@@ -85,6 +104,22 @@ public class CommunityController {
         }
     }
 
+    /**
+     * 评论分页（游标分页）
+     */
+    @GetMapping("/posts/{postId}/comments/page")
+    public Result<CursorPageVO<CommunityCommentVO>> listCommentPage(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @PathVariable Long postId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            return Result.success(communityService.listCommentPage(userId, postId, cursor, size));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 新增评论
      */
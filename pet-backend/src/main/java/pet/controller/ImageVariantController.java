@@ -0,0 +1,51 @@
+package pet.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import pet.upload.ImageVariantService;
+import pet.upload.ImageVariants;
+import pet.upload.UploadEtagGenerator;
+
+import java.nio.file.Path;
+
+/**
+ * 上传图片的定宽缩略图（/uploads/variants/{宽度}/原图路径）
+ */
+@RestController
+@RequiredArgsConstructor
+public class ImageVariantController {
+
+    private final ImageVariantService imageVariantService;
+    private final UploadEtagGenerator uploadEtagGenerator;
+    private final CacheControl uploadCacheControl;
+
+    @GetMapping(ImageVariants.VARIANT_PREFIX + "{width}/**")
+    public ResponseEntity<Resource> variant(@PathVariable int width, HttpServletRequest request, WebRequest webRequest) {
+        String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        String prefix = ImageVariants.VARIANT_PREFIX + width + "/";
+        if (path == null || !path.startsWith(prefix)) return ResponseEntity.notFound().build();
+
+        Path file = imageVariantService.resolve(width, path.substring(prefix.length()));
+        if (file == null) return ResponseEntity.notFound().build();
+        Resource resource = new FileSystemResource(file);
+        // 与 /uploads/** 的静态资源一致：长期缓存 + 内容摘要 ETag，Range 请求由 ResponseEntity<Resource> 处理
+        String etag = uploadEtagGenerator.apply(resource);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(uploadCacheControl).build();
+        }
+        MediaType type = MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return ResponseEntity.ok().contentType(type).cacheControl(uploadCacheControl).body(resource);
+    }
+}
@@ -1,11 +1,18 @@
 package pet.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import pet.cache.KnowledgeArticleCache;
 import pet.common.Result;
 import pet.service.KnowledgeService;
 import pet.vo.KnowledgeArticleVO;
 import pet.vo.KnowledgeCategoryVO;
+import pet.vo.PageVO;
 
 import java.util.List;
 
@@ -37,13 +44,58 @@ public class KnowledgeController {
         }
     }
 
-    @GetMapping("/articles/{id}")
-    public Result<KnowledgeArticleVO> getArticle(@PathVariable Long id) {
+    /**
+     * 分页文章列表（只返回摘要字段，正文通过详情接口获取）
+     */
+    @GetMapping("/articles/page")
+    public Result<PageVO<KnowledgeArticleVO>> pageArticles(
+            @RequestParam(value = "categoryId", required = false) Long categoryId,
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size
+    ) {
+        try {
+            return Result.success(knowledgeService.pageArticles(categoryId, keyword, page, size));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 全文检索（相关度排序、分页、命中摘要）
+     */
+    @GetMapping("/search")
+    public Result<PageVO<KnowledgeArticleVO>> search(
+            @RequestParam("keyword") String keyword,
+            @RequestParam(value = "categoryId", required = false) Long categoryId,
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size
+    ) {
         try {
-            return Result.success(knowledgeService.getArticle(id));
+            return Result.success(knowledgeService.searchArticles(categoryId, keyword, page, size));
         } catch (RuntimeException e) {
             return Result.error(e.getMessage());
         }
     }
+
+    /**
+     * 文章详情：直接写出缓存的 JSON，If-None-Match 命中时返回 304
+     */
+    @GetMapping("/articles/{id}")
+    public ResponseEntity<?> getArticle(@PathVariable Long id, WebRequest webRequest) {
+        KnowledgeArticleCache.Rendered rendered;
+        try {
+            rendered = knowledgeService.getRenderedArticle(id);
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(Result.error(e.getMessage()));
+        }
+        if (webRequest.checkNotModified(rendered.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .body(rendered.json());
+    }
 }
 
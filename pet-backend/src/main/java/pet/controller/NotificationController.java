@@ -0,0 +1,86 @@
+package pet.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import pet.common.Result;
+import pet.service.NotificationService;
+import pet.vo.CursorPageVO;
+import pet.vo.NotificationVO;
+import pet.vo.ReminderVO;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    /**
+     * 站内通知列表（游标分页）
+     */
+    @GetMapping
+    public Result<CursorPageVO<NotificationVO>> list(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            return Result.success(notificationService.listNotifications(userId, cursor, size));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 未读通知数
+     */
+    @GetMapping("/unread-count")
+    public Result<Long> unreadCount(@RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        try {
+            return Result.success(notificationService.countUnread(userId));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 标记单条通知为已读
+     */
+    @PutMapping("/{id}/read")
+    public Result<Void> markRead(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @PathVariable Long id) {
+        try {
+            notificationService.markRead(userId, id);
+            return Result.success();
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 全部标记为已读
+     */
+    @PutMapping("/read-all")
+    public Result<Void> markAllRead(@RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        try {
+            notificationService.markAllRead(userId);
+            return Result.success();
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 待提醒的疫苗、驱虫事项
+     */
+    @GetMapping("/reminders")
+    public Result<List<ReminderVO>> reminders(@RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        try {
+            return Result.success(notificationService.listUpcomingReminders(userId));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+}
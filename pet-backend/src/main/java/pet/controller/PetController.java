@@ -1,8 +1,17 @@
 package pet.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,9 +20,14 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import pet.common.Result;
@@ -21,8 +35,13 @@ import pet.dto.HealthRecordCreateDTO;
 import pet.dto.HealthRecordUpdateDTO;
 import pet.dto.PetCreateDTO;
 import pet.dto.PetUpdateDTO;
+import pet.export.HealthRecordExporter;
+import pet.export.HealthRecordImporter;
 import pet.service.PetService;
+import pet.vo.CursorPageVO;
+import pet.vo.HealthRecordImportVO;
 import pet.vo.HealthRecordVO;
+import pet.vo.PetOverviewVO;
 import pet.vo.PetVO;
 
 @RestController
@@ -31,6 +50,8 @@ import pet.vo.PetVO;
 public class PetController {
 
     private final PetService petService;
+    private final HealthRecordExporter healthRecordExporter;
+    private final ObjectMapper objectMapper;
 
     /**
      * 获取当前用户的宠物列表
@@ -44,6 +65,18 @@ public class PetController {
         }
     }
 
+    /**
+     * 宠物列表页：宠物及其健康记录数、最近一条健康记录
+     */
+    @GetMapping("/overview")
+    public Result<List<PetOverviewVO>> overview(@RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        try {
+            return Result.success(petService.listPetOverview(userId));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 创建宠物档案（绑定当前用户）
      */
@@ -117,6 +150,101 @@ public class PetController {
         }
     }
 
+    /**
+     * 按时间范围获取健康记录（时间线，不含内容）
+     */
+    @GetMapping("/{petId}/records/range")
+    public Result<List<HealthRecordVO>> listRecordsInRange(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @PathVariable Long petId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return Result.success(petService.listHealthRecordsInRange(userId, petId, from, to));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 健康记录分页（游标分页，不含内容）
+     */
+    @GetMapping("/{petId}/records/page")
+    public Result<CursorPageVO<HealthRecordVO>> pageRecords(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @PathVariable Long petId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            return Result.success(petService.pageHealthRecords(userId, petId, cursor, size));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 导出全部健康记录（CSV 或 NDJSON，流式写出）
+     */
+    @GetMapping("/{petId}/records/export")
+    public ResponseEntity<StreamingResponseBody> exportRecords(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @PathVariable Long petId,
+            @RequestParam(value = "format", defaultValue = "csv") String format) throws JsonProcessingException {
+        HealthRecordExporter.Export export;
+        try {
+            export = petService.exportHealthRecords(userId, petId, format);
+        } catch (RuntimeException e) {
+            // 返回类型固定为流式响应体，错误信息同样按 Result 结构写出
+            byte[] json = objectMapper.writeValueAsBytes(Result.error(e.getMessage()));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> out.write(json));
+        }
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(export.fileName(), StandardCharsets.UTF_8)
+                .build();
+        return ResponseEntity.ok()
+                .contentType(export.format().mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(out -> healthRecordExporter.write(export.petId(), export.format(), out));
+    }
+
+    /**
+     * 批量导入健康记录：上传 CSV 或 JSON 文件（按扩展名识别，默认 CSV）
+     */
+    @PostMapping(value = "/{petId}/records/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<HealthRecordImportVO> importRecordsFile(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @PathVariable Long petId,
+            @RequestPart("file") MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+            HealthRecordImporter.Format format = name.endsWith(".json")
+                    ? HealthRecordImporter.Format.JSON : HealthRecordImporter.Format.CSV;
+            return Result.success(petService.importHealthRecords(userId, petId, format, in));
+        } catch (IOException e) {
+            return Result.error("读取导入文件失败");
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 批量导入健康记录：请求体为 JSON 数组（application/json）或 CSV（text/csv）
+     */
+    @PostMapping(value = "/{petId}/records/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public Result<HealthRecordImportVO> importRecordsBody(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @PathVariable Long petId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        try {
+            HealthRecordImporter.Format format = MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                    ? HealthRecordImporter.Format.JSON : HealthRecordImporter.Format.CSV;
+            return Result.success(petService.importHealthRecords(userId, petId, format, body));
+        } catch (RuntimeException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 新增健康记录（绑定宠物）
      */
@@ -101,7 +101,7 @@ public class UserController {
      *
      * @param userId 用户ID
      * @param updatePasswordDTO 密码信息
-     * @return 更新后的用户信息
+     * @return 更新后的用户信息（含新令牌，此前签发的令牌全部作废）
      */
     @PutMapping("/me/password")
     public Result<UserVO> updatePassword(
@@ -26,6 +26,16 @@ public class CommunityPost {
      */
     private String content;
 
+    /**
+     * 评论数（计数器，随评论增删更新）
+     */
+    private Integer commentCount;
+
+    /**
+     * 图片数（发布时写入）
+     */
+    private Integer imageCount;
+
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
 }
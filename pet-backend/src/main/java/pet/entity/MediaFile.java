@@ -0,0 +1,43 @@
+package pet.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("media_file")
+public class MediaFile {
+    /**
+     * 文件ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 文件内容 SHA-256（十六进制）
+     */
+    private String sha256;
+
+    /**
+     * 访问URL
+     */
+    private String url;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long size;
+
+    private String contentType;
+
+    /**
+     * 引用计数，为 0 时可被清理
+     */
+    private Integer refCount;
+
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,44 @@
+package pet.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("pet_reminder")
+public class PetReminder {
+    public static final int STATUS_PENDING = 0;
+    public static final int STATUS_FIRED = 1;
+    public static final int STATUS_CANCELLED = 2;
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private Long userId;
+    private Long petId;
+    /**
+     * 来源健康记录ID
+     */
+    private Long recordId;
+    /**
+     * 提醒类型，见 {@link pet.reminder.ReminderRule}
+     */
+    private String type;
+    private String title;
+    /**
+     * 下次到期时间
+     */
+    private LocalDateTime dueTime;
+    /**
+     * 提醒时间（到期前提前量）
+     */
+    private LocalDateTime remindTime;
+    /**
+     * 状态：0-待提醒，1-已提醒，2-已取消
+     */
+    private Integer status;
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+}
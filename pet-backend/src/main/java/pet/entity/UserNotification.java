@@ -0,0 +1,25 @@
+package pet.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("user_notification")
+public class UserNotification {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private Long userId;
+    private Long petId;
+    private Long reminderId;
+    private String title;
+    private String content;
+    /**
+     * 是否已读：0-未读，1-已读
+     */
+    private Integer isRead;
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,113 @@
+package pet.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pet.entity.HealthRecord;
+import pet.mapper.HealthRecordMapper;
+import pet.vo.HealthRecordVO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * 健康记录导出
+ * <p>
+ * 用 MyBatis {@link Cursor} 逐行读取并直接写入响应流，内存占用与记录数无关。
+ * 数据库连接只在 {@link #write} 执行期间（即响应体写出期间）占用，写完即归还连接池。
+ */
+@Component
+@RequiredArgsConstructor
+public class HealthRecordExporter {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final HealthRecordMapper healthRecordMapper;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON);
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) return CSV;
+            for (Format f : values()) {
+                if (f.extension.equals(value.trim().toLowerCase(Locale.ROOT))) return f;
+            }
+            throw new RuntimeException("不支持的导出格式");
+        }
+    }
+
+    /**
+     * 已校验归属的导出任务，由调用方在写响应体时调用 {@link #write}
+     */
+    public record Export(Long petId, Format format, String fileName) {
+    }
+
+    /**
+     * 按格式写出宠物的全部健康记录（时间正序）
+     */
+    @Transactional(readOnly = true)
+    public void write(Long petId, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        try (Cursor<HealthRecord> cursor = healthRecordMapper.streamByPetId(petId)) {
+            if (format == Format.CSV) {
+                // BOM 让 Excel 按 UTF-8 打开
+                writer.write('\uFEFF');
+                writer.write("记录时间,标题,内容\r\n");
+            }
+            for (HealthRecord hr : cursor) {
+                if (format == Format.CSV) {
+                    writer.write(hr.getRecordTime() == null ? "" : hr.getRecordTime().format(TIME));
+                    writer.write(',');
+                    writer.write(csv(hr.getTitle()));
+                    writer.write(',');
+                    writer.write(csv(hr.getContent()));
+                    writer.write("\r\n");
+                } else {
+                    writer.write(objectMapper.writeValueAsString(toVO(hr)));
+                    writer.write('\n');
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static HealthRecordVO toVO(HealthRecord hr) {
+        HealthRecordVO vo = new HealthRecordVO();
+        vo.setId(hr.getId());
+        vo.setRecordTime(hr.getRecordTime());
+        vo.setTitle(hr.getTitle());
+        vo.setContent(hr.getContent());
+        return vo;
+    }
+}
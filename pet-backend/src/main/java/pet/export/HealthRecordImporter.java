@@ -0,0 +1,322 @@
+package pet.export;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pet.entity.HealthRecord;
+import pet.mapper.HealthRecordMapper;
+import pet.reminder.ReminderRule;
+import pet.vo.HealthRecordImportVO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.*;
+
+/**
+ * 健康记录批量导入（CSV 与导出格式一致，或 JSON 数组）
+ * <p>
+ * 先在事务外把导入内容读入内存（不超过 app.pet.import-max-bytes），上传慢的请求不会占着数据库连接和事务；
+ * 之后在一个事务内逐行解析、校验，合格的行攒满一批后用 BATCH 执行器一次写入（MySQL 连接参数
+ * rewriteBatchedStatements=true 时合并为多值 INSERT）。任一行校验失败则全部回滚并返回逐行错误，
+ * 修正后重新导入不会产生重复记录。单个字段不超过 {@link #FIELD_MAX_LENGTH} 个字符。
+ */
+@Component
+public class HealthRecordImporter {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int TITLE_MAX_LENGTH = 100;
+    /**
+     * 单个字段的最大字符数：content 为 TEXT（65535 字节），按每字符最多 4 字节计
+     */
+    static final int FIELD_MAX_LENGTH = 16_000;
+    private static final Set<String> CSV_HEADERS = Set.of("记录时间", "recordtime", "record_time");
+    private static final DateTimeFormatter TIME = new DateTimeFormatterBuilder()
+            .appendPattern("uuuu-M-d")
+            .optionalStart().appendLiteral(' ').appendPattern("H:mm")
+            .optionalStart().appendPattern(":ss")
+            .optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true).optionalEnd()
+            .optionalEnd().optionalEnd()
+            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+            .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+            .toFormatter();
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final ObjectMapper jsonMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxRows;
+    private final int batchSize;
+    private final int maxBytes;
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    /**
+     * 导入结果；latestByRule 为每类提醒规则下记录时间最晚的一条（已写入并带有ID），用于重新推算提醒
+     */
+    public record Result(HealthRecordImportVO summary, Collection<HealthRecord> latestByRule) {
+    }
+
+    public HealthRecordImporter(SqlSessionFactory sqlSessionFactory,
+                                ObjectMapper objectMapper,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.pet.import-max-rows:5000}") int maxRows,
+                                @Value("${app.pet.import-batch-size:500}") int batchSize,
+                                @Value("${app.pet.import-max-bytes:10485760}") int maxBytes) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        // 单独的副本限制字符串长度，不影响全局 ObjectMapper
+        this.jsonMapper = objectMapper.copy();
+        this.jsonMapper.getFactory().setStreamReadConstraints(
+                StreamReadConstraints.builder().maxStringLength(FIELD_MAX_LENGTH).build());
+        this.transactionTemplate = transactionTemplate;
+        this.maxRows = Math.max(maxRows, 1);
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxBytes = Math.max(maxBytes, 1);
+    }
+
+    /**
+     * 导入到指定宠物（调用方已校验归属）
+     */
+    public Result importRecords(Long petId, Format format, InputStream in) throws IOException {
+        byte[] data = in.readNBytes(maxBytes + 1);
+        if (data.length > maxBytes) {
+            throw new RuntimeException("导入内容不能超过 " + maxBytes / 1024 + " KB");
+        }
+        return transactionTemplate.execute(status -> {
+            try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+                Batch batch = new Batch(petId, session.getMapper(HealthRecordMapper.class), session);
+                if (format == Format.CSV) {
+                    readCsv(data, batch);
+                } else {
+                    readJson(data, batch);
+                }
+                batch.flush();
+                if (batch.summary.getFailed() > 0) {
+                    status.setRollbackOnly();
+                    batch.summary.setImported(0);
+                    return new Result(batch.summary, List.of());
+                }
+                return new Result(batch.summary, batch.latestByRule.values());
+            }
+        });
+    }
+
+    private void readCsv(byte[] data, Batch batch) {
+        CsvReader reader = new CsvReader(new StringReader(new String(data, StandardCharsets.UTF_8)));
+        int row = 0;
+        List<String> fields;
+        while ((fields = reader.next()) != null) {
+            row++;
+            if (row == 1 && !fields.isEmpty()) {
+                String first = fields.get(0);
+                if (first.startsWith("\uFEFF")) fields.set(0, first = first.substring(1));
+                if (CSV_HEADERS.contains(first.trim().toLowerCase(Locale.ROOT))) continue;
+            }
+            if (reader.fieldTooLong) {
+                batch.reject(row, "字段不能超过 " + FIELD_MAX_LENGTH + " 个字符");
+                continue;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+            batch.add(row, fields.get(0), fields.size() > 1 ? fields.get(1) : null, fields.size() > 2 ? fields.get(2) : null);
+        }
+    }
+
+    private void readJson(byte[] data, Batch batch) {
+        int row = 0;
+        try (JsonParser parser = jsonMapper.getFactory().createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("JSON 内容必须是数组");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                row++;
+                JsonNode node = parser.readValueAsTree();
+                if (node == null || !node.isObject()) {
+                    batch.reject(row, "应为对象");
+                    continue;
+                }
+                batch.add(row, text(node.get("recordTime")), text(node.get("title")), text(node.get("content")));
+            }
+        } catch (StreamConstraintsException e) {
+            throw new RuntimeException("第 " + row + " 条记录的字段不能超过 " + FIELD_MAX_LENGTH + " 个字符");
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("JSON 格式错误：" + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    /**
+     * CSV 记录读取器（支持引号内的逗号、换行和 "" 转义）
+     */
+    static final class CsvReader {
+
+        private final BufferedReader reader;
+        /**
+         * 最近读取的一条记录中是否有字段超过 {@link #FIELD_MAX_LENGTH}，超出部分已丢弃
+         */
+        boolean fieldTooLong;
+
+        CsvReader(Reader reader) {
+            this.reader = new BufferedReader(reader);
+        }
+
+        /**
+         * 读取一条记录，文件结束时返回 null
+         */
+        List<String> next() {
+            try {
+                return read();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<String> read() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            fieldTooLong = false;
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            append(field, '"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        append(field, (char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') reader.reset();
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    append(field, (char) c);
+                }
+            }
+            if (!any) return null;
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private void append(StringBuilder field, char c) {
+            if (field.length() < FIELD_MAX_LENGTH) {
+                field.append(c);
+            } else {
+                fieldTooLong = true;
+            }
+        }
+    }
+
+    /**
+     * 当前待写入的一批记录与累计结果
+     */
+    private final class Batch {
+
+        private final Long petId;
+        private final HealthRecordMapper mapper;
+        private final SqlSession session;
+        private final List<HealthRecord> pending = new ArrayList<>();
+        private final Map<ReminderRule, HealthRecord> latestByRule = new EnumMap<>(ReminderRule.class);
+        private final HealthRecordImportVO summary = new HealthRecordImportVO();
+        private int rows;
+
+        Batch(Long petId, HealthRecordMapper mapper, SqlSession session) {
+            this.petId = petId;
+            this.mapper = mapper;
+            this.session = session;
+        }
+
+        void add(int row, String recordTime, String title, String content) {
+            if (++rows > maxRows) {
+                throw new RuntimeException("单次最多导入 " + maxRows + " 条记录");
+            }
+            String t = title == null ? "" : title.trim();
+            if (t.isEmpty()) {
+                reject(row, "标题不能为空");
+                return;
+            }
+            if (t.length() > TITLE_MAX_LENGTH) {
+                reject(row, "标题不能超过 " + TITLE_MAX_LENGTH + " 个字符");
+                return;
+            }
+            if (recordTime == null || recordTime.isBlank()) {
+                reject(row, "记录时间不能为空");
+                return;
+            }
+            LocalDateTime time;
+            try {
+                time = LocalDateTime.parse(recordTime.trim().replace('T', ' ').replace('/', '-'), TIME);
+            } catch (DateTimeParseException e) {
+                reject(row, "记录时间格式错误：" + recordTime.trim());
+                return;
+            }
+            // 已有错误时整批会回滚，后续只做校验
+            if (summary.getFailed() > 0) return;
+
+            HealthRecord hr = new HealthRecord();
+            hr.setPetId(petId);
+            hr.setRecordTime(time);
+            hr.setTitle(t);
+            hr.setContent(content == null || content.isEmpty() ? null : content);
+            hr.setCreateTime(LocalDateTime.now());
+            hr.setUpdateTime(LocalDateTime.now());
+            pending.add(hr);
+            ReminderRule rule = ReminderRule.match(t);
+            if (rule != null) {
+                HealthRecord latest = latestByRule.get(rule);
+                if (latest == null || !time.isBefore(latest.getRecordTime())) latestByRule.put(rule, hr);
+            }
+            if (pending.size() >= batchSize) flush();
+        }
+
+        void reject(int row, String message) {
+            summary.setFailed(summary.getFailed() + 1);
+            if (summary.getErrors().size() < MAX_REPORTED_ERRORS) {
+                summary.getErrors().add(new HealthRecordImportVO.RowError(row, message));
+            }
+            pending.clear();
+        }
+
+        void flush() {
+            if (pending.isEmpty()) return;
+            for (HealthRecord hr : pending) mapper.insert(hr);
+            session.flushStatements();
+            summary.setImported(summary.getImported() + pending.size());
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package pet.job;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pet.entity.CommunityPost;
+import pet.mapper.CommunityPostMapper;
+
+import java.util.*;
+
+/**
+ * 动态计数校对任务
+ * <p>
+ * 按ID分批扫描 community_post，用分组统计修正 comment_count / image_count 的漂移。
+ * 修正采用条件更新，校对期间计数被并发修改的动态留到下一轮处理。
+ */
+@Slf4j
+@Component
+public class CommunityPostStatReconciler {
+
+    private final CommunityPostMapper postMapper;
+    private final int batchSize;
+    private final Counter repaired;
+
+    public CommunityPostStatReconciler(CommunityPostMapper postMapper, MeterRegistry registry,
+                                       @Value("${app.community.stat-reconcile-batch-size:500}") int batchSize) {
+        this.postMapper = postMapper;
+        this.batchSize = Math.max(batchSize, 1);
+        this.repaired = Counter.builder("community.post_stat.repaired").register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${app.community.stat-reconcile-interval-ms:3600000}",
+            fixedDelayString = "${app.community.stat-reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        try {
+            int fixed = reconcileAll();
+            if (fixed > 0) log.info("动态计数校对完成，修正 {} 条", fixed);
+        } catch (RuntimeException e) {
+            log.error("动态计数校对失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 全量校对一遍，返回修正条数
+     */
+    public int reconcileAll() {
+        int fixed = 0;
+        long lastId = 0;
+        while (true) {
+            LambdaQueryWrapper<CommunityPost> qw = new LambdaQueryWrapper<>();
+            qw.select(CommunityPost::getId, CommunityPost::getCommentCount, CommunityPost::getImageCount)
+                    .gt(CommunityPost::getId, lastId)
+                    .orderByAsc(CommunityPost::getId)
+                    .last("limit " + batchSize);
+            List<CommunityPost> posts = postMapper.selectList(qw);
+            if (posts.isEmpty()) break;
+
+            List<Long> ids = new ArrayList<>(posts.size());
+            for (CommunityPost p : posts) ids.add(p.getId());
+            Map<Long, Integer> comments = toCountMap(postMapper.countCommentsByPostIds(ids));
+            Map<Long, Integer> images = toCountMap(postMapper.countImagesByPostIds(ids));
+
+            for (CommunityPost p : posts) {
+                int commentCount = comments.getOrDefault(p.getId(), 0);
+                int imageCount = images.getOrDefault(p.getId(), 0);
+                int oldComment = p.getCommentCount() == null ? 0 : p.getCommentCount();
+                int oldImage = p.getImageCount() == null ? 0 : p.getImageCount();
+                if (commentCount == oldComment && imageCount == oldImage) continue;
+                if (postMapper.repairCounts(p.getId(), commentCount, imageCount, oldComment, oldImage) > 0) {
+                    fixed++;
+                    repaired.increment();
+                }
+            }
+            lastId = posts.get(posts.size() - 1).getId();
+            if (posts.size() < batchSize) break;
+        }
+        return fixed;
+    }
+
+    private Map<Long, Integer> toCountMap(List<Map<String, Object>> rows) {
+        Map<Long, Integer> result = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            result.put(((Number) row.get("post_id")).longValue(), ((Number) row.get("cnt")).intValue());
+        }
+        return result;
+    }
+}
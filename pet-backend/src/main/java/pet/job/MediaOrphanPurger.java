@@ -0,0 +1,29 @@
+package pet.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pet.service.MediaStorageService;
+
+/**
+ * 定期清理引用数为 0 的媒体文件
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MediaOrphanPurger {
+
+    private final MediaStorageService mediaStorageService;
+
+    @Scheduled(initialDelayString = "${app.upload.orphan-purge-interval-ms:86400000}",
+            fixedDelayString = "${app.upload.orphan-purge-interval-ms:86400000}")
+    public void purge() {
+        try {
+            int deleted = mediaStorageService.purgeOrphans();
+            if (deleted > 0) log.info("已清理无引用媒体文件 {} 个", deleted);
+        } catch (RuntimeException e) {
+            log.error("清理无引用媒体文件失败: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package pet.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import pet.entity.CommunityPostImage;
 
+import java.util.List;
+
 @Mapper
 public interface CommunityPostImageMapper extends BaseMapper<CommunityPostImage> {
-}
 
+    /**
+     * 多行插入一组图片记录
+     */
+    @Insert("<script>INSERT INTO community_post_image (post_id, url, create_time) VALUES "
+            + "<foreach collection='images' item='img' separator=','>(#{img.postId}, #{img.url}, #{img.createTime})</foreach>"
+            + "</script>")
+    int insertBatch(@Param("images") List<CommunityPostImage> images);
+}
@@ -2,9 +2,44 @@ package pet.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 import pet.entity.CommunityPost;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 @Mapper
 public interface CommunityPostMapper extends BaseMapper<CommunityPost> {
-}
 
+    /**
+     * 原子地调整评论数
+     */
+    @Update("UPDATE community_post SET comment_count = GREATEST(comment_count + #{delta}, 0) WHERE id = #{postId}")
+    int addCommentCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    /**
+     * 统计一批动态的实际评论数（post_id, cnt）
+     */
+    @Select("<script>SELECT post_id, COUNT(*) AS cnt FROM community_comment WHERE post_id IN "
+            + "<foreach collection='postIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> GROUP BY post_id</script>")
+    List<Map<String, Object>> countCommentsByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    /**
+     * 统计一批动态的实际图片数（post_id, cnt）
+     */
+    @Select("<script>SELECT post_id, COUNT(*) AS cnt FROM community_post_image WHERE post_id IN "
+            + "<foreach collection='postIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> GROUP BY post_id</script>")
+    List<Map<String, Object>> countImagesByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    /**
+     * 修正计数，仅当计数在校对期间未被修改时生效
+     */
+    @Update("UPDATE community_post SET comment_count = #{commentCount}, image_count = #{imageCount} "
+            + "WHERE id = #{postId} AND comment_count = #{expectedCommentCount} AND image_count = #{expectedImageCount}")
+    int repairCounts(@Param("postId") Long postId,
+                     @Param("commentCount") int commentCount, @Param("imageCount") int imageCount,
+                     @Param("expectedCommentCount") int expectedCommentCount, @Param("expectedImageCount") int expectedImageCount);
+}
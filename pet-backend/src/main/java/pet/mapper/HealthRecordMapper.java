@@ -1,10 +1,37 @@
 package pet.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 import pet.entity.HealthRecord;
 
 @Mapper
 public interface HealthRecordMapper extends BaseMapper<HealthRecord> {
-}
 
+    /**
+     * 时间线查询条件：只取列表展示用的列，不读 TEXT 内容，按 (pet_id, record_time, id) 索引倒序
+     */
+    static LambdaQueryWrapper<HealthRecord> timelineQuery(Long petId) {
+        LambdaQueryWrapper<HealthRecord> qw = new LambdaQueryWrapper<>();
+        qw.select(HealthRecord::getId, HealthRecord::getRecordTime, HealthRecord::getTitle)
+                .eq(HealthRecord::getPetId, petId)
+                .orderByDesc(HealthRecord::getRecordTime)
+                .orderByDesc(HealthRecord::getId);
+        return qw;
+    }
+
+    /**
+     * 按时间正序逐行读取宠物的全部健康记录，用于导出
+     * <p>
+     * 需在事务内遍历；fetchSize = Integer.MIN_VALUE 让 MySQL 驱动对这一条语句逐行流式读取，不把结果集整体读入内存，
+     * 其他查询不受影响。流式读取期间该连接不能执行其他语句。
+     */
+    @Select("SELECT id, pet_id, record_time, title, content FROM health_record WHERE pet_id = #{petId} ORDER BY record_time, id")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<HealthRecord> streamByPetId(@Param("petId") Long petId);
+}
@@ -1,10 +1,76 @@
 package pet.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import pet.entity.KnowledgeArticle;
+import pet.vo.KnowledgeArticleVO;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface KnowledgeArticleMapper extends BaseMapper<KnowledgeArticle> {
-}
 
+    /**
+     * 列表查询条件：只取列表展示用的列，不读 MEDIUMTEXT 正文（正文只在详情页加载）
+     */
+    static LambdaQueryWrapper<KnowledgeArticle> listQuery() {
+        LambdaQueryWrapper<KnowledgeArticle> qw = new LambdaQueryWrapper<>();
+        qw.select(KnowledgeArticle::getId, KnowledgeArticle::getCategoryId, KnowledgeArticle::getTitle,
+                KnowledgeArticle::getSummary, KnowledgeArticle::getCover, KnowledgeArticle::getCreateTime);
+        return qw;
+    }
+
+    /**
+     * 全文检索文章，按相关度排序（站内索引未就绪时的回退路径）
+     * <p>
+     * 走 ft_ka_title_content（ngram）索引；不返回正文，只在库内截取首个关键词附近的一段作为 highlight。
+     *
+     * @param booleanQuery  BOOLEAN MODE 过滤表达式
+     * @param naturalQuery  NATURAL LANGUAGE MODE 排序文本
+     * @param anchor        截取摘要定位的关键词
+     * @param snippetLead   关键词之前保留的字符数
+     * @param snippetLength 摘要长度
+     */
+    @Select("<script>SELECT id, category_id, title, summary, cover, create_time, "
+            + "SUBSTRING(content, GREATEST(LOCATE(#{anchor}, content) - #{snippetLead}, 1), #{snippetLength}) AS highlight "
+            + "FROM knowledge_article "
+            + "WHERE MATCH(title, content) AGAINST(#{booleanQuery} IN BOOLEAN MODE) "
+            + "<if test='categoryId != null'>AND category_id = #{categoryId} </if>"
+            + "ORDER BY MATCH(title, content) AGAINST(#{naturalQuery}) DESC, id DESC</script>")
+    IPage<KnowledgeArticleVO> searchFullText(IPage<KnowledgeArticleVO> page,
+                                             @Param("categoryId") Long categoryId,
+                                             @Param("booleanQuery") String booleanQuery,
+                                             @Param("naturalQuery") String naturalQuery,
+                                             @Param("anchor") String anchor,
+                                             @Param("snippetLead") int snippetLead,
+                                             @Param("snippetLength") int snippetLength);
+
+    /**
+     * 文章详情缓存的版本：文章与所属分类 update_time 中较晚的一个，只按主键读两行的时间列；文章不存在时返回 null
+     */
+    @Select("SELECT GREATEST(a.update_time, COALESCE(c.update_time, a.update_time)) "
+            + "FROM knowledge_article a LEFT JOIN knowledge_category c ON c.id = a.category_id WHERE a.id = #{id}")
+    LocalDateTime selectDetailVersion(@Param("id") Long id);
+
+    /**
+     * 按ID截取正文中首个关键词附近的一段作为 highlight，不返回正文
+     *
+     * @param anchor        截取摘要定位的关键词
+     * @param snippetLead   关键词之前保留的字符数
+     * @param snippetLength 摘要长度
+     */
+    @Select("<script>SELECT id, "
+            + "SUBSTRING(content, GREATEST(LOCATE(#{anchor}, content) - #{snippetLead}, 1), #{snippetLength}) AS highlight "
+            + "FROM knowledge_article WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    List<KnowledgeArticleVO> selectSnippets(@Param("ids") Collection<Long> ids,
+                                            @Param("anchor") String anchor,
+                                            @Param("snippetLead") int snippetLead,
+                                            @Param("snippetLength") int snippetLength);
+}
@@ -0,0 +1,36 @@
+package pet.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.*;
+import pet.entity.MediaFile;
+
+@Mapper
+public interface MediaFileMapper extends BaseMapper<MediaFile> {
+
+    /**
+     * 登记一次引用：不存在时插入（引用数 1），已存在时引用数 +1
+     */
+    @Insert("INSERT INTO media_file (sha256, url, size, content_type, ref_count, create_time, update_time) "
+            + "VALUES (#{sha256}, #{url}, #{size}, #{contentType}, 1, NOW(), NOW()) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, update_time = NOW()")
+    int addReference(@Param("sha256") String sha256, @Param("url") String url,
+                     @Param("size") long size, @Param("contentType") String contentType);
+
+    /**
+     * 按URL增加引用数（URL 不是托管文件时不生效）
+     */
+    @Update("UPDATE media_file SET ref_count = ref_count + 1, update_time = NOW() WHERE url = #{url}")
+    int retainByUrl(@Param("url") String url);
+
+    /**
+     * 按URL减少引用数
+     */
+    @Update("UPDATE media_file SET ref_count = ref_count - 1, update_time = NOW() WHERE url = #{url} AND ref_count > 0")
+    int releaseByUrl(@Param("url") String url);
+
+    /**
+     * 删除仍无引用的记录，返回 1 表示可以删除文件
+     */
+    @Delete("DELETE FROM media_file WHERE id = #{id} AND ref_count = 0")
+    int deleteIfOrphan(@Param("id") Long id);
+}
@@ -2,9 +2,38 @@ package pet.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import pet.entity.Pet;
+import pet.vo.PetOverviewVO;
+
+import java.util.List;
 
 @Mapper
 public interface PetMapper extends BaseMapper<Pet> {
-}
 
+    /**
+     * 用户的全部宠物及各自的健康记录数、最近一条健康记录
+     * <p>
+     * 记录数按 pet_id 分组统计；最近一条取最大 record_time 下的最大 id，
+     * 两者都走 idx_hr_pet_time (pet_id, record_time, id) 索引，不读 content。
+     */
+    @Select("SELECT p.id, p.name, p.breed, p.gender, p.birthday, p.photo, "
+            + "COALESCE(s.record_count, 0) AS record_count, "
+            + "hr.id AS latest_record_id, hr.record_time AS latest_record_time, hr.title AS latest_record_title "
+            + "FROM pet p "
+            + "LEFT JOIN (SELECT h.pet_id, COUNT(*) AS record_count, MAX(h.record_time) AS latest_time "
+            + "FROM health_record h JOIN pet hp ON hp.id = h.pet_id WHERE hp.user_id = #{userId} GROUP BY h.pet_id) s "
+            + "ON s.pet_id = p.id "
+            + "LEFT JOIN health_record hr ON hr.id = (SELECT MAX(h2.id) FROM health_record h2 "
+            + "WHERE h2.pet_id = p.id AND h2.record_time = s.latest_time) "
+            + "WHERE p.user_id = #{userId} "
+            + "ORDER BY p.id")
+    List<PetOverviewVO> selectOverview(@Param("userId") Long userId);
+
+    /**
+     * 锁定宠物行，需在事务内调用；用于串行化同一宠物的提醒推算
+     */
+    @Select("SELECT id FROM pet WHERE id = #{id} FOR UPDATE")
+    Long lockById(@Param("id") Long id);
+}
@@ -0,0 +1,17 @@
+package pet.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+import pet.entity.PetReminder;
+
+@Mapper
+public interface PetReminderMapper extends BaseMapper<PetReminder> {
+
+    /**
+     * 标记为已提醒，仅当提醒仍为待提醒状态时生效（已取消、已删除或已被处理的返回 0）
+     */
+    @Update("UPDATE pet_reminder SET status = 1, update_time = NOW() WHERE id = #{id} AND status = 0")
+    int markFired(@Param("id") Long id);
+}
@@ -0,0 +1,9 @@
+package pet.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import pet.entity.UserNotification;
+
+@Mapper
+public interface UserNotificationMapper extends BaseMapper<UserNotification> {
+}
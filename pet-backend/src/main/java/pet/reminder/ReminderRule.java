@@ -0,0 +1,68 @@
+package pet.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * 根据健康记录标题推算下次到期时间的规则
+ * <p>
+ * 按标题关键词匹配：疫苗/免疫按年加强；驱虫默认按体内驱虫每 3 个月一次，标题含"体外"时按每月一次。
+ */
+public enum ReminderRule {
+
+    VACCINE("vaccine", "疫苗") {
+        @Override
+        public LocalDateTime nextDue(LocalDateTime recordTime) {
+            return recordTime.plusYears(1);
+        }
+    },
+    DEWORM("deworm", "体内驱虫") {
+        @Override
+        public LocalDateTime nextDue(LocalDateTime recordTime) {
+            return recordTime.plusMonths(3);
+        }
+    },
+    DEWORM_EXTERNAL("deworm_external", "体外驱虫") {
+        @Override
+        public LocalDateTime nextDue(LocalDateTime recordTime) {
+            return recordTime.plusMonths(1);
+        }
+    };
+
+    private final String type;
+    private final String label;
+
+    ReminderRule(String type, String label) {
+        this.type = type;
+        this.label = label;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public abstract LocalDateTime nextDue(LocalDateTime recordTime);
+
+    /**
+     * 按类型查找规则
+     */
+    public static ReminderRule ofType(String type) {
+        for (ReminderRule rule : values()) {
+            if (rule.type.equals(type)) return rule;
+        }
+        return null;
+    }
+
+    /**
+     * 按标题匹配规则，不需要提醒时返回 null
+     */
+    public static ReminderRule match(String title) {
+        if (title == null) return null;
+        if (title.contains("疫苗") || title.contains("免疫")) return VACCINE;
+        if (title.contains("驱虫")) return title.contains("体外") ? DEWORM_EXTERNAL : DEWORM;
+        return null;
+    }
+}
@@ -0,0 +1,347 @@
+package pet.reminder;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pet.entity.HealthRecord;
+import pet.entity.Pet;
+import pet.entity.PetReminder;
+import pet.mapper.HealthRecordMapper;
+import pet.mapper.PetMapper;
+import pet.mapper.PetReminderMapper;
+import pet.service.NotificationService;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * 疫苗、驱虫提醒调度
+ * <p>
+ * 健康记录保存或删除时按同类最新的一条记录和 {@link ReminderRule} 推算下次到期时间，写入 pet_reminder；
+ * 推算在事务内锁定宠物行后进行，同一宠物同类的待提醒只保留一条。
+ * 待提醒数据只有提醒时间落在当前时间窗口内的才加载进内存时间轮：每当窗口剩余不足一半时，
+ * 按 (status, remind_time, id) 索引分批读取下一个窗口，不做全表扫描；窗口内新建的提醒直接加入时间轮。
+ * 到期后通过条件更新标记为已提醒并写入站内通知，已取消或已删除的提醒自然跳过，重复加载也不会重复通知。
+ */
+@Slf4j
+@Component
+public class ReminderScheduler {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final PetReminderMapper reminderMapper;
+    private final PetMapper petMapper;
+    private final HealthRecordMapper healthRecordMapper;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final long retryMillis;
+    private final int batchSize;
+    private final int advanceDays;
+    private final TimingWheel wheel;
+    private final Counter fired;
+
+    /**
+     * 已加载进时间轮的提醒时间上界（不含），null 表示尚未加载
+     */
+    private LocalDateTime loadedUntil;
+    private long retryAt;
+
+    public ReminderScheduler(PetReminderMapper reminderMapper,
+                             PetMapper petMapper,
+                             HealthRecordMapper healthRecordMapper,
+                             NotificationService notificationService,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry registry,
+                             @Value("${app.reminder.enabled:true}") boolean enabled,
+                             @Value("${app.reminder.tick-ms:1000}") long tickMillis,
+                             @Value("${app.reminder.wheel-size:512}") int wheelSize,
+                             @Value("${app.reminder.window-minutes:10}") int windowMinutes,
+                             @Value("${app.reminder.retry-seconds:60}") int retrySeconds,
+                             @Value("${app.reminder.load-batch-size:1000}") int batchSize,
+                             @Value("${app.reminder.advance-days:7}") int advanceDays) {
+        this.reminderMapper = reminderMapper;
+        this.petMapper = petMapper;
+        this.healthRecordMapper = healthRecordMapper;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.windowMillis = Math.max(windowMinutes, 1) * 60_000L;
+        this.retryMillis = Math.max(retrySeconds, 1) * 1000L;
+        this.batchSize = Math.max(batchSize, 1);
+        this.advanceDays = Math.max(advanceDays, 0);
+        this.wheel = new TimingWheel(tickMillis, wheelSize, System.currentTimeMillis());
+        this.fired = Counter.builder("reminder.fired").register(registry);
+        Gauge.builder("reminder.wheel.size", this, s -> s.wheelSize()).register(registry);
+    }
+
+    /**
+     * 健康记录新增或修改后调用，应与写入在同一事务内：取消该记录的待提醒，按同类最新的一条记录重新推算。
+     * 修改前后的标题都不匹配任何规则时不涉及提醒，直接返回，不锁宠物行。
+     *
+     * @param previousTitle 修改前的标题，新增时为 null
+     */
+    public void onRecordSaved(Long userId, HealthRecord record, String previousTitle) {
+        if (ReminderRule.match(record.getTitle()) == null && ReminderRule.match(previousTitle) == null) return;
+        recompute(userId, record, false);
+    }
+
+    /**
+     * 健康记录删除前调用，须与删除在同一事务内（pet_reminder 随记录级联删除，删除后无从得知原提醒）：
+     * 该记录是待提醒的来源时，改由同类剩余记录中最新的一条推算
+     */
+    public void beforeRecordDeleted(Long userId, HealthRecord record) {
+        recompute(userId, record, true);
+    }
+
+    /**
+     * 在事务内锁定宠物行后推算，同一宠物的并发保存、删除串行执行，同类最多只有一条待提醒；
+     * 新建的提醒在事务提交后才加入时间轮
+     */
+    private void recompute(Long userId, HealthRecord record, boolean deleting) {
+        transactionTemplate.executeWithoutResult(status -> {
+            petMapper.lockById(record.getPetId());
+            Set<ReminderRule> rules = EnumSet.noneOf(ReminderRule.class);
+            for (String type : cancelByRecord(record.getId())) {
+                ReminderRule rule = ReminderRule.ofType(type);
+                if (rule != null) rules.add(rule);
+            }
+            ReminderRule rule = deleting ? null : ReminderRule.match(record.getTitle());
+            if (rule != null) rules.add(rule);
+
+            List<PetReminder> created = new ArrayList<>();
+            for (ReminderRule r : rules) {
+                PetReminder reminder = remindLatest(userId, record.getPetId(), r, deleting ? record.getId() : null);
+                if (reminder != null) created.add(reminder);
+            }
+            if (created.isEmpty()) return;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.forEach(ReminderScheduler.this::schedule);
+                }
+            });
+        });
+    }
+
+    /**
+     * 按同类最新的记录生成待提醒；同类已有到期不早于它的提醒（包括已提醒过的）时不再新建
+     */
+    private PetReminder remindLatest(Long userId, Long petId, ReminderRule rule, Long excludedRecordId) {
+        HealthRecord latest = latestRecord(petId, rule, excludedRecordId);
+        if (latest == null) return null;
+        LocalDateTime due = rule.nextDue(latest.getRecordTime());
+
+        LambdaQueryWrapper<PetReminder> later = new LambdaQueryWrapper<>();
+        later.eq(PetReminder::getPetId, petId)
+                .eq(PetReminder::getType, rule.type())
+                .in(PetReminder::getStatus, PetReminder.STATUS_PENDING, PetReminder.STATUS_FIRED)
+                .ge(PetReminder::getDueTime, due);
+        if (reminderMapper.selectCount(later) > 0) return null;
+
+        // 新记录覆盖同类的旧提醒
+        LambdaUpdateWrapper<PetReminder> superseded = new LambdaUpdateWrapper<>();
+        superseded.eq(PetReminder::getPetId, petId)
+                .eq(PetReminder::getType, rule.type())
+                .eq(PetReminder::getStatus, PetReminder.STATUS_PENDING)
+                .set(PetReminder::getStatus, PetReminder.STATUS_CANCELLED)
+                .set(PetReminder::getUpdateTime, LocalDateTime.now());
+        reminderMapper.update(null, superseded);
+
+        PetReminder reminder = new PetReminder();
+        reminder.setUserId(userId);
+        reminder.setPetId(petId);
+        reminder.setRecordId(latest.getId());
+        reminder.setType(rule.type());
+        reminder.setTitle(latest.getTitle());
+        reminder.setDueTime(due);
+        reminder.setRemindTime(due.minusDays(advanceDays));
+        reminder.setStatus(PetReminder.STATUS_PENDING);
+        reminder.setCreateTime(LocalDateTime.now());
+        reminder.setUpdateTime(LocalDateTime.now());
+        reminderMapper.insert(reminder);
+        return reminder;
+    }
+
+    /**
+     * 按时间线倒序分批查找匹配规则的最新一条记录，只读列表列
+     */
+    private HealthRecord latestRecord(Long petId, ReminderRule rule, Long excludedRecordId) {
+        LocalDateTime lastTime = null;
+        long lastId = 0;
+        while (true) {
+            LambdaQueryWrapper<HealthRecord> qw = HealthRecordMapper.timelineQuery(petId);
+            qw.ne(excludedRecordId != null, HealthRecord::getId, excludedRecordId);
+            if (lastTime != null) {
+                LocalDateTime t = lastTime;
+                long id = lastId;
+                qw.and(w -> w.lt(HealthRecord::getRecordTime, t)
+                        .or(o -> o.eq(HealthRecord::getRecordTime, t).lt(HealthRecord::getId, id)));
+            }
+            qw.last("limit " + batchSize);
+            List<HealthRecord> list = healthRecordMapper.selectList(qw);
+            for (HealthRecord hr : list) {
+                if (ReminderRule.match(hr.getTitle()) == rule) return hr;
+            }
+            if (list.size() < batchSize) return null;
+            HealthRecord last = list.get(list.size() - 1);
+            lastTime = last.getRecordTime();
+            lastId = last.getId();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reminder.tick-ms:1000}")
+    public void tick() {
+        if (!enabled) return;
+        long now = System.currentTimeMillis();
+        List<Long> due;
+        synchronized (this) {
+            if (now >= retryAt && (loadedUntil == null || toMillis(loadedUntil) - now <= windowMillis / 2)) {
+                loadWindow(now);
+            }
+            due = wheel.advance(now);
+        }
+        for (int i = 0; i < due.size(); i += batchSize) {
+            fire(due.subList(i, Math.min(i + batchSize, due.size())));
+        }
+    }
+
+    /**
+     * 窗口内的提醒直接加入时间轮，窗口外的留给后续窗口加载
+     */
+    private synchronized void schedule(PetReminder reminder) {
+        if (loadedUntil != null && reminder.getRemindTime().isBefore(loadedUntil)) {
+            wheel.schedule(reminder.getId(), toMillis(reminder.getRemindTime()));
+        }
+    }
+
+    /**
+     * 加载 [loadedUntil, now + window) 内的待提醒；首次加载不设下界，启动前已过期的提醒一并补发。
+     * 持有锁执行，保证与 {@link #schedule} 之间不会漏掉窗口边界上新建的提醒。
+     */
+    private void loadWindow(long now) {
+        LocalDateTime from = loadedUntil;
+        LocalDateTime until = toTime(now + windowMillis);
+        LocalDateTime lastTime = null;
+        long lastId = 0;
+        int loaded = 0;
+        try {
+            while (true) {
+                LambdaQueryWrapper<PetReminder> qw = new LambdaQueryWrapper<>();
+                qw.select(PetReminder::getId, PetReminder::getRemindTime)
+                        .eq(PetReminder::getStatus, PetReminder.STATUS_PENDING)
+                        .ge(from != null, PetReminder::getRemindTime, from)
+                        .lt(PetReminder::getRemindTime, until);
+                if (lastTime != null) {
+                    LocalDateTime t = lastTime;
+                    long id = lastId;
+                    qw.and(w -> w.gt(PetReminder::getRemindTime, t)
+                            .or(o -> o.eq(PetReminder::getRemindTime, t).gt(PetReminder::getId, id)));
+                }
+                qw.orderByAsc(PetReminder::getRemindTime).orderByAsc(PetReminder::getId).last("limit " + batchSize);
+                List<PetReminder> list = reminderMapper.selectList(qw);
+                for (PetReminder r : list) {
+                    wheel.schedule(r.getId(), toMillis(r.getRemindTime()));
+                }
+                loaded += list.size();
+                if (list.size() < batchSize) break;
+                PetReminder last = list.get(list.size() - 1);
+                lastTime = last.getRemindTime();
+                lastId = last.getId();
+            }
+            loadedUntil = until;
+            if (loaded > 0) log.info("已加载待提醒 {} 条，截至 {}", loaded, until);
+        } catch (RuntimeException e) {
+            // 已加入时间轮的部分在重试时会再次加载，到期处理是幂等的
+            retryAt = now + retryMillis;
+            log.warn("加载待提醒失败，{} 秒后重试: {}", retryMillis / 1000, e.getMessage());
+        }
+    }
+
+    private void fire(List<Long> ids) {
+        try {
+            List<PetReminder> reminders = reminderMapper.selectBatchIds(ids);
+            Set<Long> petIds = new HashSet<>();
+            for (PetReminder r : reminders) petIds.add(r.getPetId());
+            Map<Long, String> petNames = new HashMap<>();
+            if (!petIds.isEmpty()) {
+                LambdaQueryWrapper<Pet> qw = new LambdaQueryWrapper<>();
+                qw.select(Pet::getId, Pet::getName).in(Pet::getId, petIds);
+                for (Pet p : petMapper.selectList(qw)) petNames.put(p.getId(), p.getName());
+            }
+            for (PetReminder r : reminders) {
+                if (r.getStatus() != PetReminder.STATUS_PENDING) continue;
+                String petName = petNames.getOrDefault(r.getPetId(), "宠物");
+                ReminderRule rule = ReminderRule.ofType(r.getType());
+                String title = (rule == null ? "健康" : rule.label()) + "到期提醒";
+                if (notificationService.deliverReminder(r, title, content(r, petName))) {
+                    fired.increment();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("发送提醒失败，{} 秒后重试: {}", retryMillis / 1000, e.getMessage(), e);
+            long retry = System.currentTimeMillis() + retryMillis;
+            synchronized (this) {
+                for (Long id : ids) wheel.schedule(id, retry);
+            }
+        }
+    }
+
+    private String content(PetReminder r, String petName) {
+        String due = r.getDueTime().format(DATE);
+        if (r.getDueTime().isAfter(LocalDateTime.now())) {
+            return petName + " 的「" + r.getTitle() + "」将于 " + due + " 到期，请及时安排。";
+        }
+        return petName + " 的「" + r.getTitle() + "」已于 " + due + " 到期，请尽快安排。";
+    }
+
+    /**
+     * 取消该记录的待提醒，返回被取消的提醒类型
+     */
+    private List<String> cancelByRecord(Long recordId) {
+        LambdaQueryWrapper<PetReminder> qw = new LambdaQueryWrapper<>();
+        qw.select(PetReminder::getId, PetReminder::getType)
+                .eq(PetReminder::getRecordId, recordId)
+                .eq(PetReminder::getStatus, PetReminder.STATUS_PENDING);
+        List<PetReminder> pending = reminderMapper.selectList(qw);
+        if (pending.isEmpty()) return List.of();
+        List<Long> ids = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        for (PetReminder r : pending) {
+            ids.add(r.getId());
+            types.add(r.getType());
+        }
+        LambdaUpdateWrapper<PetReminder> uw = new LambdaUpdateWrapper<>();
+        uw.in(PetReminder::getId, ids)
+                .eq(PetReminder::getStatus, PetReminder.STATUS_PENDING)
+                .set(PetReminder::getStatus, PetReminder.STATUS_CANCELLED)
+                .set(PetReminder::getUpdateTime, LocalDateTime.now());
+        reminderMapper.update(null, uw);
+        return types;
+    }
+
+    private synchronized int wheelSize() {
+        return wheel.size();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
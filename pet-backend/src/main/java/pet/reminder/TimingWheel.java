@@ -0,0 +1,87 @@
+package pet.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 哈希时间轮
+ * <p>
+ * 时间按 tickMillis 划分为刻度，刻度对槽数取模落到槽上，槽内为单链表；
+ * 超出一圈的任务记录剩余圈数，每经过一次该槽减一。加入任务 O(1)，推进时只处理经过的槽。
+ * 非线程安全，由调用方加锁。
+ */
+public class TimingWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Entry[] slots;
+    /**
+     * 下一个待处理的刻度
+     */
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis 刻度长度（毫秒）
+     * @param wheelSize  槽数，向上取整为 2 的幂
+     * @param nowMillis  当前时间，从这一刻度开始推进
+     */
+    public TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        this.tickMillis = Math.max(tickMillis, 1);
+        int n = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.mask = n - 1;
+        this.slots = new Entry[n];
+        this.currentTick = nowMillis / this.tickMillis;
+    }
+
+    /**
+     * 加入任务，已过期的任务在下一次推进时到期
+     */
+    public void schedule(long id, long deadlineMillis) {
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick);
+        int slot = (int) (tick & mask);
+        slots[slot] = new Entry(id, (tick - currentTick) / slots.length, slots[slot]);
+        size++;
+    }
+
+    /**
+     * 推进到当前时间，返回到期的任务ID
+     */
+    public List<Long> advance(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        long target = nowMillis / tickMillis;
+        while (currentTick <= target) {
+            int slot = (int) (currentTick & mask);
+            Entry prev = null;
+            for (Entry e = slots[slot]; e != null; e = e.next) {
+                if (e.rounds <= 0) {
+                    expired.add(e.id);
+                    if (prev == null) slots[slot] = e.next;
+                    else prev.next = e.next;
+                    size--;
+                } else {
+                    e.rounds--;
+                    prev = e;
+                }
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static final class Entry {
+        final long id;
+        long rounds;
+        Entry next;
+
+        Entry(long id, long rounds, Entry next) {
+            this.id = id;
+            this.rounds = rounds;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package pet.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 单类文档的内存倒排索引
+ * <p>
+ * 倒排表记录 词 -> (文档ID -> 词频)，正排记录每篇文档的词以支持删除和重建。
+ * 另有 单字 -> 包含该字的词 的辅助索引，单字查询只合并这些词的倒排表，不扫描整个词表。
+ * 每篇文档带 owner（作者）与 group（所属动态/分类）两个过滤属性。
+ * 查询要求命中全部查询词，可按 BM25 相关度或按ID倒序（即发布时间倒序）分页。
+ */
+public class InvertedIndex {
+
+    public enum Order {
+        RELEVANCE,
+        NEWEST
+    }
+
+    /**
+     * 待写入的文档
+     */
+    public record Document(long id, long owner, long group, String text) {
+    }
+
+    private static final int SNAPSHOT_MAGIC = 0x50534958;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final String name;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<String, Set<String>> termsByChar = new HashMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final Map<Long, Set<Long>> docsByGroup = new HashMap<>();
+    private long totalLength;
+    private long maxId;
+
+    private volatile boolean ready;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    /**
+     * 构建期间被删除的文档与分组，防止构建线程把已删除的数据写回（由写锁保护）
+     */
+    private boolean building;
+    private final Set<Long> removedIds = new HashSet<>();
+    private final Set<Long> removedGroups = new HashSet<>();
+
+    public InvertedIndex(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 构建完成后才可用于查询
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入过的最大文档ID
+     */
+    public long maxId() {
+        lock.readLock().lock();
+        try {
+            return maxId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或覆盖一篇文档
+     */
+    public void put(long id, long owner, long group, String text) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        lock.writeLock().lock();
+        try {
+            removeDoc(id);
+            addDoc(id, owner, group, tokens);
+            dirty.set(true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            if (building) removedIds.add(id);
+            if (removeDoc(id)) dirty.set(true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除某个分组下的全部文档（例如动态删除后级联删除其评论）
+     */
+    public void removeGroup(long group) {
+        lock.writeLock().lock();
+        try {
+            if (building) removedGroups.add(group);
+            Set<Long> ids = docsByGroup.get(group);
+            if (ids == null) return;
+            for (Long id : new ArrayList<>(ids)) removeDoc(id);
+            dirty.set(true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 清空并进入构建状态，构建期间仍接受增删
+     */
+    public void beginBuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            building = true;
+            postings.clear();
+            termsByChar.clear();
+            docs.clear();
+            docsByGroup.clear();
+            totalLength = 0;
+            maxId = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 构建线程批量写入，跳过构建期间已被删除的文档
+     */
+    public void putAllFromBuild(List<Document> batch) {
+        List<List<String>> tokens = new ArrayList<>(batch.size());
+        for (Document d : batch) tokens.add(Tokenizer.tokenize(d.text()));
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Document d = batch.get(i);
+                if (removedIds.contains(d.id()) || removedGroups.contains(d.group())) continue;
+                removeDoc(d.id());
+                addDoc(d.id(), d.owner(), d.group(), tokens.get(i));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishBuild() {
+        lock.writeLock().lock();
+        try {
+            building = false;
+            removedIds.clear();
+            removedGroups.clear();
+            dirty.set(true);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 构建失败时清空，保持不可用状态
+     */
+    public void abortBuild() {
+        beginBuild();
+        lock.writeLock().lock();
+        try {
+            building = false;
+            removedIds.clear();
+            removedGroups.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 读取并清除“有未落盘修改”标记
+     */
+    public boolean clearDirty() {
+        return dirty.getAndSet(false);
+    }
+
+    public void markDirty() {
+        dirty.set(true);
+    }
+
+    /**
+     * 查询
+     *
+     * @param query  查询文本，全部词都需命中
+     * @param owner  作者过滤，null 不过滤
+     * @param group  分组过滤，null 不过滤
+     * @param order  排序方式
+     * @param offset 跳过条数
+     * @param limit  返回条数
+     */
+    public SearchHits search(String query, Long owner, Long group, Order order, int offset, int limit) {
+        List<String> terms = Tokenizer.queryTerms(query);
+        if (terms.isEmpty()) return SearchHits.EMPTY;
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> p = postingsOf(term);
+                if (p.isEmpty()) return SearchHits.EMPTY;
+                lists.add(p);
+            }
+
+            // 从最短的倒排表（或分组）出发逐个校验，其余列表只做哈希查找
+            Collection<Long> seed = lists.get(0).keySet();
+            for (Map<Long, Integer> p : lists) {
+                if (p.size() < seed.size()) seed = p.keySet();
+            }
+            if (group != null) {
+                Set<Long> inGroup = docsByGroup.getOrDefault(group, Collections.emptySet());
+                if (inGroup.size() < seed.size()) seed = inGroup;
+            }
+            List<Long> matched = new ArrayList<>();
+            for (Long id : seed) {
+                if (!containsAll(lists, id)) continue;
+                Doc d = docs.get(id);
+                if (d == null) continue;
+                if (owner != null && d.owner() != owner) continue;
+                if (group != null && d.group() != group) continue;
+                matched.add(id);
+            }
+
+            if (order == Order.NEWEST) {
+                matched.sort(Comparator.reverseOrder());
+            } else {
+                Map<Long, Double> scores = new HashMap<>();
+                for (Long id : matched) scores.put(id, bm25(lists, id));
+                matched.sort((a, b) -> {
+                    int cmp = Double.compare(scores.get(b), scores.get(a));
+                    return cmp != 0 ? cmp : Long.compare(b, a);
+                });
+            }
+            int from = Math.min(Math.max(offset, 0), matched.size());
+            int to = (int) Math.min((long) from + Math.max(limit, 0), matched.size());
+            return new SearchHits(matched.size(), List.copyOf(matched.subList(from, to)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写出快照（只保存正排，倒排在加载时重建）
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(maxId);
+            out.writeInt(docs.size());
+            for (Map.Entry<Long, Doc> e : docs.entrySet()) {
+                Doc d = e.getValue();
+                out.writeLong(e.getKey());
+                out.writeLong(d.owner());
+                out.writeLong(d.group());
+                out.writeInt(d.terms().length);
+                for (int i = 0; i < d.terms().length; i++) {
+                    out.writeUTF(d.terms()[i]);
+                    out.writeInt(d.tfs()[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在构建状态下加载快照
+     *
+     * @return 快照中的最大文档ID，之后只需补齐更大的ID
+     */
+    public long readSnapshot(DataInput in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("unsupported snapshot format");
+        }
+        long snapshotMaxId = in.readLong();
+        int count = in.readInt();
+        lock.writeLock().lock();
+        try {
+            for (int k = 0; k < count; k++) {
+                long id = in.readLong();
+                long owner = in.readLong();
+                long group = in.readLong();
+                int n = in.readInt();
+                String[] terms = new String[n];
+                int[] tfs = new int[n];
+                for (int i = 0; i < n; i++) {
+                    terms[i] = in.readUTF();
+                    tfs[i] = in.readInt();
+                }
+                if (removedIds.contains(id) || removedGroups.contains(group) || docs.containsKey(id)) continue;
+                addDoc(id, owner, group, terms, tfs);
+            }
+            maxId = Math.max(maxId, snapshotMaxId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return snapshotMaxId;
+    }
+
+    private Map<Long, Integer> postingsOf(String term) {
+        if (!Tokenizer.isSingleCjk(term)) return postings.getOrDefault(term, Collections.emptyMap());
+        // 单字只在独立成段时作为词出现，其余情况需要合并所有包含它的二元组
+        Set<String> terms = termsByChar.get(term);
+        if (terms == null) return Collections.emptyMap();
+        Map<Long, Integer> merged = new HashMap<>();
+        for (String t : terms) {
+            postings.get(t).forEach((id, tf) -> merged.merge(id, tf, Integer::sum));
+        }
+        return merged;
+    }
+
+    private static boolean containsAll(List<Map<Long, Integer>> lists, Long id) {
+        for (Map<Long, Integer> p : lists) {
+            if (!p.containsKey(id)) return false;
+        }
+        return true;
+    }
+
+    private double bm25(List<Map<Long, Integer>> lists, Long id) {
+        int n = docs.size();
+        double avgLength = n == 0 ? 1 : Math.max((double) totalLength / n, 1);
+        double length = docs.get(id).length();
+        double score = 0;
+        for (Map<Long, Integer> p : lists) {
+            int df = p.size();
+            double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            int tf = p.get(id);
+            score += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+        }
+        return score;
+    }
+
+    private void addDoc(long id, long owner, long group, List<String> tokens) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String t : tokens) tf.merge(t, 1, Integer::sum);
+        String[] terms = new String[tf.size()];
+        int[] tfs = new int[tf.size()];
+        int k = 0;
+        for (Map.Entry<String, Integer> e : tf.entrySet()) {
+            terms[k] = e.getKey();
+            tfs[k] = e.getValue();
+            k++;
+        }
+        addDoc(id, owner, group, terms, tfs);
+    }
+
+    private void addDoc(long id, long owner, long group, String[] terms, int[] tfs) {
+        int length = 0;
+        for (int i = 0; i < terms.length; i++) {
+            Map<Long, Integer> p = postings.get(terms[i]);
+            if (p == null) {
+                p = new HashMap<>();
+                postings.put(terms[i], p);
+                linkChars(terms[i], true);
+            }
+            p.put(id, tfs[i]);
+            length += tfs[i];
+        }
+        docs.put(id, new Doc(owner, group, terms, tfs, length));
+        if (group != 0) docsByGroup.computeIfAbsent(group, g -> new HashSet<>()).add(id);
+        totalLength += length;
+        maxId = Math.max(maxId, id);
+    }
+
+    private boolean removeDoc(long id) {
+        Doc d = docs.remove(id);
+        if (d == null) return false;
+        for (String term : d.terms()) {
+            Map<Long, Integer> p = postings.get(term);
+            if (p == null) continue;
+            p.remove(id);
+            if (p.isEmpty()) {
+                postings.remove(term);
+                linkChars(term, false);
+            }
+        }
+        Set<Long> ids = docsByGroup.get(d.group());
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) docsByGroup.remove(d.group());
+        }
+        totalLength -= d.length();
+        return true;
+    }
+
+    /**
+     * 词首次出现或从词表移除时，同步维护其中每个中日韩文字到该词的映射
+     */
+    private void linkChars(String term, boolean add) {
+        for (int cp : term.codePoints().distinct().toArray()) {
+            String ch = Character.toString(cp);
+            if (!Tokenizer.isSingleCjk(ch)) continue;
+            if (add) {
+                termsByChar.computeIfAbsent(ch, c -> new HashSet<>()).add(term);
+            } else {
+                Set<String> terms = termsByChar.get(ch);
+                if (terms != null && terms.remove(term) && terms.isEmpty()) termsByChar.remove(ch);
+            }
+        }
+    }
+
+    private record Doc(long owner, long group, String[] terms, int[] tfs, int length) {
+    }
+}
@@ -0,0 +1,26 @@
+package pet.search;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 索引查询结果：命中总数与当前页的文档ID（已排好序）
+ */
+public record SearchHits(long total, List<Long> ids) {
+
+    public static final SearchHits EMPTY = new SearchHits(0, List.of());
+
+    /**
+     * 将按ID批量查出的记录恢复为命中顺序，已不存在的记录跳过
+     */
+    public <T> List<T> arrange(Collection<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T row : rows) byId.put(idOf.apply(row), row);
+        List<T> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = byId.get(id);
+            if (row != null) result.add(row);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,308 @@
+package pet.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pet.entity.CommunityComment;
+import pet.entity.CommunityPost;
+import pet.entity.KnowledgeArticle;
+import pet.mapper.CommunityCommentMapper;
+import pet.mapper.CommunityPostMapper;
+import pet.mapper.KnowledgeArticleMapper;
+import pet.search.InvertedIndex.Document;
+import pet.search.InvertedIndex.Order;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 站内搜索索引（养护知识、社区动态、社区评论）
+ * <p>
+ * 启动后在后台线程从数据库构建；动态和评论内容不可修改，因此先加载磁盘快照再补齐新增数据，
+ * 数量对不上时整体重建。写操作通过钩子在事务提交后同步到索引。
+ * 索引未就绪时查询方法返回 null，由调用方回退到数据库查询。
+ */
+@Slf4j
+@Component
+public class SearchIndexService {
+
+    private static final int BUILD_BATCH = 1000;
+
+    private final KnowledgeArticleMapper articleMapper;
+    private final CommunityPostMapper postMapper;
+    private final CommunityCommentMapper commentMapper;
+    private final Map<String, Timer> queryTimers = new HashMap<>();
+    private final Path snapshotDir;
+
+    private final InvertedIndex articles = new InvertedIndex("knowledge");
+    private final InvertedIndex posts = new InvertedIndex("post");
+    private final InvertedIndex comments = new InvertedIndex("comment");
+
+    public SearchIndexService(KnowledgeArticleMapper articleMapper,
+                              CommunityPostMapper postMapper,
+                              CommunityCommentMapper commentMapper,
+                              MeterRegistry registry,
+                              @Value("${app.search.snapshot-dir:search-index}") String snapshotDir) {
+        this.articleMapper = articleMapper;
+        this.postMapper = postMapper;
+        this.commentMapper = commentMapper;
+        this.snapshotDir = Paths.get(snapshotDir).toAbsolutePath().normalize();
+        for (InvertedIndex index : List.of(articles, posts, comments)) {
+            Gauge.builder("search.index.docs", index, InvertedIndex::size).tag("index", index.name()).register(registry);
+            queryTimers.put(index.name(), Timer.builder("search.index.query").tag("index", index.name()).register(registry));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread t = new Thread(this::buildAll, "search-index-build");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void buildAll() {
+        build(articles, false, this::loadArticles, () -> articleMapper.selectCount(null));
+        build(posts, true, this::loadPosts, () -> postMapper.selectCount(null));
+        build(comments, true, this::loadComments, () -> commentMapper.selectCount(null));
+    }
+
+    // ---------------------------------------------------------------- 查询
+
+    /**
+     * 搜索养护知识文章（标题、摘要、正文）
+     *
+     * @return 索引未就绪时返回 null
+     */
+    public SearchHits searchArticles(String keyword, Long categoryId, Order order, int offset, int limit) {
+        return search(articles, keyword, null, categoryId, order, offset, limit);
+    }
+
+    /**
+     * 搜索社区动态，按发布时间倒序
+     *
+     * @return 索引未就绪时返回 null
+     */
+    public SearchHits searchPosts(String keyword, Long authorId, int offset, int limit) {
+        return search(posts, keyword, authorId, null, Order.NEWEST, offset, limit);
+    }
+
+    /**
+     * 搜索社区评论，按发布时间倒序
+     *
+     * @return 索引未就绪时返回 null
+     */
+    public SearchHits searchComments(String keyword, Long postId, Long authorId, int offset, int limit) {
+        return search(comments, keyword, authorId, postId, Order.NEWEST, offset, limit);
+    }
+
+    private SearchHits search(InvertedIndex index, String keyword, Long owner, Long group, Order order, int offset, int limit) {
+        if (!index.isReady()) return null;
+        return queryTimers.get(index.name()).record(() -> index.search(keyword, owner, group, order, offset, limit));
+    }
+
+    // ---------------------------------------------------------------- 写操作钩子
+
+    public void onArticleSaved(KnowledgeArticle a) {
+        Document doc = new Document(a.getId(), 0, nz(a.getCategoryId()), articleText(a));
+        afterCommit(() -> articles.put(doc.id(), doc.owner(), doc.group(), doc.text()));
+    }
+
+    public void onArticleDeleted(Long articleId) {
+        afterCommit(() -> articles.remove(articleId));
+    }
+
+    public void onPostCreated(CommunityPost p) {
+        Document doc = new Document(p.getId(), nz(p.getUserId()), 0, p.getContent());
+        afterCommit(() -> posts.put(doc.id(), doc.owner(), doc.group(), doc.text()));
+    }
+
+    /**
+     * 动态删除后同时移除其评论（数据库外键级联删除）
+     */
+    public void onPostDeleted(Long postId) {
+        afterCommit(() -> {
+            posts.remove(postId);
+            comments.removeGroup(postId);
+        });
+    }
+
+    public void onCommentCreated(CommunityComment c) {
+        Document doc = new Document(c.getId(), nz(c.getUserId()), nz(c.getPostId()), c.getContent());
+        afterCommit(() -> comments.put(doc.id(), doc.owner(), doc.group(), doc.text()));
+    }
+
+    public void onCommentDeleted(Long commentId) {
+        afterCommit(() -> comments.remove(commentId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ---------------------------------------------------------------- 构建与快照
+
+    private interface BatchLoader {
+        List<Document> load(long afterId, int limit);
+    }
+
+    private void build(InvertedIndex index, boolean useSnapshot, BatchLoader loader, LongSupplier counter) {
+        long start = System.currentTimeMillis();
+        try {
+            index.beginBuild();
+            long afterId = useSnapshot ? loadSnapshot(index) : -1;
+            boolean fromSnapshot = afterId >= 0;
+            if (!fromSnapshot) index.beginBuild();
+            fill(index, loader, Math.max(afterId, 0));
+            if (fromSnapshot && index.size() != counter.getAsLong()) {
+                log.info("{} 索引快照与数据库不一致，重新构建", index.name());
+                index.beginBuild();
+                fill(index, loader, 0);
+                fromSnapshot = false;
+            }
+            index.finishBuild();
+            log.info("{} 索引就绪：{} 篇文档，{}，耗时 {} ms", index.name(), index.size(),
+                    fromSnapshot ? "从快照恢复" : "全量构建", System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            index.abortBuild();
+            log.warn("{} 索引构建失败，搜索回退到数据库查询: {}", index.name(), e.getMessage());
+        }
+    }
+
+    private void fill(InvertedIndex index, BatchLoader loader, long afterId) {
+        long last = afterId;
+        while (true) {
+            List<Document> batch = loader.load(last, BUILD_BATCH);
+            if (batch.isEmpty()) return;
+            index.putAllFromBuild(batch);
+            last = batch.get(batch.size() - 1).id();
+            if (batch.size() < BUILD_BATCH) return;
+        }
+    }
+
+    /**
+     * @return 快照中的最大文档ID，没有可用快照时返回 -1
+     */
+    private long loadSnapshot(InvertedIndex index) {
+        Path file = snapshotFile(index);
+        if (!Files.isRegularFile(file)) return -1;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            return index.readSnapshot(in);
+        } catch (IOException e) {
+            log.warn("{} 索引快照读取失败，改为全量构建: {}", index.name(), e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 定期把有修改的索引写入快照
+     */
+    @Scheduled(initialDelayString = "${app.search.snapshot-interval-ms:600000}",
+            fixedDelayString = "${app.search.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        for (InvertedIndex index : List.of(posts, comments)) {
+            if (!index.isReady() || !index.clearDirty()) continue;
+            try {
+                writeSnapshot(index);
+            } catch (IOException e) {
+                index.markDirty();
+                log.warn("{} 索引快照写入失败: {}", index.name(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private void writeSnapshot(InvertedIndex index) throws IOException {
+        Files.createDirectories(snapshotDir);
+        Path file = snapshotFile(index);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            index.writeSnapshot(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path snapshotFile(InvertedIndex index) {
+        return snapshotDir.resolve(index.name() + ".idx");
+    }
+
+    // ---------------------------------------------------------------- 数据源
+
+    private List<Document> loadArticles(long afterId, int limit) {
+        LambdaQueryWrapper<KnowledgeArticle> qw = new LambdaQueryWrapper<>();
+        qw.select(KnowledgeArticle::getId, KnowledgeArticle::getCategoryId, KnowledgeArticle::getTitle,
+                        KnowledgeArticle::getSummary, KnowledgeArticle::getContent)
+                .gt(KnowledgeArticle::getId, afterId).orderByAsc(KnowledgeArticle::getId).last("limit " + limit);
+        List<Document> docs = new ArrayList<>();
+        for (KnowledgeArticle a : articleMapper.selectList(qw)) {
+            docs.add(new Document(a.getId(), 0, nz(a.getCategoryId()), articleText(a)));
+        }
+        return docs;
+    }
+
+    private List<Document> loadPosts(long afterId, int limit) {
+        LambdaQueryWrapper<CommunityPost> qw = new LambdaQueryWrapper<>();
+        qw.select(CommunityPost::getId, CommunityPost::getUserId, CommunityPost::getContent)
+                .gt(CommunityPost::getId, afterId).orderByAsc(CommunityPost::getId).last("limit " + limit);
+        List<Document> docs = new ArrayList<>();
+        for (CommunityPost p : postMapper.selectList(qw)) {
+            docs.add(new Document(p.getId(), nz(p.getUserId()), 0, p.getContent()));
+        }
+        return docs;
+    }
+
+    private List<Document> loadComments(long afterId, int limit) {
+        LambdaQueryWrapper<CommunityComment> qw = new LambdaQueryWrapper<>();
+        qw.select(CommunityComment::getId, CommunityComment::getPostId, CommunityComment::getUserId, CommunityComment::getContent)
+                .gt(CommunityComment::getId, afterId).orderByAsc(CommunityComment::getId).last("limit " + limit);
+        List<Document> docs = new ArrayList<>();
+        for (CommunityComment c : commentMapper.selectList(qw)) {
+            docs.add(new Document(c.getId(), nz(c.getUserId()), nz(c.getPostId()), c.getContent()));
+        }
+        return docs;
+    }
+
+    private static String articleText(KnowledgeArticle a) {
+        StringBuilder sb = new StringBuilder();
+        if (a.getTitle() != null) sb.append(a.getTitle()).append('\n');
+        if (a.getSummary() != null) sb.append(a.getSummary()).append('\n');
+        if (a.getContent() != null) sb.append(a.getContent());
+        return sb.toString();
+    }
+
+    private static long nz(Long v) {
+        return v == null ? 0 : v;
+    }
+}
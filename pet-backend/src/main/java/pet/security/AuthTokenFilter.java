@@ -0,0 +1,94 @@
+package pet.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import pet.common.AuthPrincipal;
+import pet.service.AuthService;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 登录令牌过滤器
+ * <p>
+ * 校验 {@code Authorization: Bearer <令牌>}，通过后把令牌中的用户ID写入 X-User-Id 请求头（覆盖客户端传入的值），
+ * 并把令牌中的权限信息放入请求属性，{@link AuthService} 直接使用而不再查库。
+ * 未携带有效令牌时，默认移除客户端自带的 X-User-Id；关闭 app.auth.token.required 可在过渡期保留旧的请求头方式。
+ */
+@Component
+public class AuthTokenFilter extends OncePerRequestFilter {
+
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final boolean required;
+
+    public AuthTokenFilter(TokenService tokenService,
+                           @Value("${app.auth.token.required:true}") boolean required) {
+        this.tokenService = tokenService;
+        this.required = required;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader("Authorization");
+        AuthPrincipal principal = null;
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            principal = tokenService.verify(authorization.substring(BEARER_PREFIX.length()).trim());
+        }
+        if (principal != null) {
+            request.setAttribute(AuthService.PRINCIPAL_ATTRIBUTE, principal);
+            chain.doFilter(new UserIdRequest(request, String.valueOf(principal.id())), response);
+        } else if (required) {
+            chain.doFilter(new UserIdRequest(request, null), response);
+        } else {
+            chain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * 以令牌中的用户ID替换 X-User-Id 请求头，userId 为 null 时视为未携带
+     */
+    private static class UserIdRequest extends HttpServletRequestWrapper {
+
+        private final String userId;
+
+        UserIdRequest(HttpServletRequest request, String userId) {
+            super(request);
+            this.userId = userId;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (USER_ID_HEADER.equalsIgnoreCase(name)) return userId;
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (USER_ID_HEADER.equalsIgnoreCase(name)) {
+                return userId == null ? Collections.emptyEnumeration() : Collections.enumeration(List.of(userId));
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = new ArrayList<>();
+            for (Enumeration<String> e = super.getHeaderNames(); e.hasMoreElements(); ) {
+                String name = e.nextElement();
+                if (!USER_ID_HEADER.equalsIgnoreCase(name)) names.add(name);
+            }
+            if (userId != null) names.add(USER_ID_HEADER);
+            return Collections.enumeration(names);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package pet.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+import pet.common.Result;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 登录、注册限流
+ * <p>
+ * 按客户端 IP 和用户名分别限流，任一维度超限即返回 429，请求不会进入数据库查询。
+ * 用户名从 JSON 请求体中读取，请求体缓存后交给后续处理。
+ * 部署在反向代理之后时需配置 server.forward-headers-strategy，使 getRemoteAddr 返回真实客户端地址。
+ */
+@Component
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> PATHS = Set.of("/api/user/login", "/api/user/register");
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final RateLimiter byIp;
+    private final RateLimiter byUsername;
+    private final Counter ipRejected;
+    private final Counter usernameRejected;
+
+    public LoginRateLimitFilter(ObjectMapper objectMapper,
+                                MeterRegistry registry,
+                                @Value("${app.auth.rate-limit.enabled:true}") boolean enabled,
+                                @Value("${app.auth.rate-limit.ip-capacity:20}") int ipCapacity,
+                                @Value("${app.auth.rate-limit.ip-refill-per-minute:20}") int ipRefill,
+                                @Value("${app.auth.rate-limit.username-capacity:5}") int usernameCapacity,
+                                @Value("${app.auth.rate-limit.username-refill-per-minute:5}") int usernameRefill,
+                                @Value("${app.auth.rate-limit.max-keys:100000}") int maxKeys) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.byIp = new RateLimiter(ipCapacity, ipRefill, maxKeys);
+        this.byUsername = new RateLimiter(usernameCapacity, usernameRefill, maxKeys);
+        this.ipRejected = Counter.builder("auth.ratelimit.rejected").tag("key", "ip").register(registry);
+        this.usernameRejected = Counter.builder("auth.ratelimit.rejected").tag("key", "username").register(registry);
+        Gauge.builder("auth.ratelimit.keys", this, f -> f.byIp.size() + f.byUsername.size()).register(registry);
+    }
+
+    /**
+     * 按与 Spring MVC 路由一致的查找路径匹配（去掉上下文路径和 ;参数、解码 %XX、合并重复的 /），
+     * 不能用原始 requestURI，否则 /api/user/login;x=1 之类的写法会绕过限流
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod())
+                || !PATHS.contains(UrlPathHelper.defaultInstance.getLookupPathForRequest(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!byIp.tryAcquire(request.getRemoteAddr())) {
+            ipRejected.increment();
+            reject(response);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        String username = username(body);
+        if (username != null && !byUsername.tryAcquire(username)) {
+            usernameRejected.increment();
+            reject(response);
+            return;
+        }
+        chain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    /**
+     * 清理空闲的桶
+     */
+    @Scheduled(initialDelayString = "${app.auth.rate-limit.sweep-interval-ms:60000}",
+            fixedDelayString = "${app.auth.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        byIp.sweep();
+        byUsername.sweep();
+    }
+
+    private String username(byte[] body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            JsonNode username = node == null ? null : node.get("username");
+            if (username == null || !username.isTextual() || username.asText().isBlank()) return null;
+            return username.asText().trim().toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", "60");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Result.error(429, "请求过于频繁，请稍后再试"));
+    }
+
+    /**
+     * 请求体已被读取，重新提供给后续的 JSON 解析
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // 请求体已全部在内存中，立即通知可读与读取完毕
+                    try {
+                        if (!isFinished()) listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
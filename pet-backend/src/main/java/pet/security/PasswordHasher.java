@@ -0,0 +1,155 @@
+package pet.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 密码哈希
+ * <p>
+ * 新密码使用 PBKDF2-HMAC-SHA256，存储格式为 {@code pbkdf2_sha256$迭代次数$盐$哈希}（Base64），
+ * 参数随哈希一起保存，调整迭代次数不影响已有密码的校验。历史 MD5 哈希仍可校验，
+ * 调用方在登录成功后根据 {@link #needsUpgrade(String)} 重新哈希。
+ * <p>
+ * PBKDF2 计算在专用的有界线程池上执行，登录高峰时最多占用固定数量的 CPU，
+ * 队列满时直接拒绝，不会拖住其余请求。迭代次数用测试目录下的 PasswordHashBenchmark 按目标耗时选取。
+ */
+@Component
+public class PasswordHasher {
+
+    public static final String PBKDF2_PREFIX = "pbkdf2_sha256";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final Pattern MD5_HEX = Pattern.compile("[0-9a-f]{32}");
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+
+    public PasswordHasher(MeterRegistry registry,
+                          @Value("${app.auth.password.iterations:310000}") int iterations,
+                          @Value("${app.auth.password.hash-threads:0}") int threads,
+                          @Value("${app.auth.password.hash-queue-capacity:64}") int queueCapacity) {
+        this.iterations = Math.max(iterations, 1);
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(n, n, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.hashTimer = Timer.builder("auth.password.hash").publishPercentiles(0.5, 0.99).register(registry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size()).register(registry);
+    }
+
+    /**
+     * 用当前参数哈希新密码
+     */
+    public String hash(String rawPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int iter = iterations;
+        byte[] hash = compute(() -> pbkdf2(rawPassword, salt, iter));
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PBKDF2_PREFIX + "$" + iter + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    /**
+     * 校验密码，支持 PBKDF2 与历史 MD5 两种格式
+     */
+    public boolean matches(String rawPassword, String stored) {
+        if (rawPassword == null || stored == null) return false;
+        if (MD5_HEX.matcher(stored).matches()) {
+            byte[] md5 = DigestUtils.md5DigestAsHex(rawPassword.getBytes(StandardCharsets.UTF_8)).getBytes(StandardCharsets.US_ASCII);
+            return MessageDigest.isEqual(md5, stored.getBytes(StandardCharsets.US_ASCII));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4 || !PBKDF2_PREFIX.equals(parts[0])) return false;
+        int iter;
+        byte[] salt;
+        byte[] expected;
+        try {
+            iter = Integer.parseInt(parts[1]);
+            salt = Base64.getDecoder().decode(parts[2]);
+            expected = Base64.getDecoder().decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (iter < 1) return false;
+        byte[] actual = compute(() -> pbkdf2(rawPassword, salt, iter));
+        return MessageDigest.isEqual(actual, expected);
+    }
+
+    /**
+     * 是否需要按当前参数重新哈希（MD5 或迭代次数低于当前配置）
+     */
+    public boolean needsUpgrade(String stored) {
+        if (stored == null || !stored.startsWith(PBKDF2_PREFIX + "$")) return true;
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * PBKDF2-HMAC-SHA256，供基准测试直接调用
+     */
+    public static byte[] pbkdf2(String rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("密码哈希失败", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private byte[] compute(Callable<byte[]> task) {
+        Future<byte[]> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("登录繁忙，请稍后重试");
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException("密码哈希失败");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("密码哈希失败");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
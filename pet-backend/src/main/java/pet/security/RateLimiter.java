@@ -0,0 +1,132 @@
+package pet.security;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 按键限流的令牌桶
+ * <p>
+ * 每个键一个桶，桶状态（剩余令牌、上次补充时间）保存在 {@link AtomicReference} 中，取令牌用 CAS 循环完成，不加锁；
+ * 桶表为 {@link ConcurrentHashMap}（分段并发）。长时间未访问的桶已补满，{@link #sweep()} 直接删除，与新建的桶等价。
+ * 键数达到上限时先清理空闲桶，仍然不够再淘汰一批（每次 1/8）当前令牌最多、即最接近新桶的桶，
+ * 正在被限流的键保留下来。不同的键之间从不共用桶，大量新键（例如撞库时的随机用户名）不会把其他用户一起限住。
+ */
+public class RateLimiter {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long idleNanos;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    /**
+     * @param capacity        桶容量（允许的突发请求数）
+     * @param refillPerMinute 每分钟补充的令牌数
+     * @param maxKeys         最多跟踪的键数
+     */
+    public RateLimiter(int capacity, int refillPerMinute, int maxKeys) {
+        this(capacity, refillPerMinute, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(int capacity, int refillPerMinute, int maxKeys, LongSupplier nanoClock) {
+        this.capacity = Math.max(capacity, 1);
+        this.tokensPerNano = Math.max(refillPerMinute, 1) / (double) TimeUnit.MINUTES.toNanos(1);
+        this.idleNanos = (long) Math.ceil(this.capacity / tokensPerNano);
+        this.maxKeys = Math.max(maxKeys, 1);
+        this.clock = nanoClock;
+    }
+
+    /**
+     * 取一个令牌，桶空时返回 false
+     */
+    public boolean tryAcquire(String key) {
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) makeRoom(now);
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * 删除已补满的空闲桶
+     */
+    public void sweep() {
+        long now = clock.getAsLong();
+        buckets.values().removeIf(b -> now - b.state.get().updatedAt() >= idleNanos);
+    }
+
+    /**
+     * 键数已满：先清理空闲桶，仍超过 7/8 时按当前令牌数从多到少淘汰，直到降到 7/8。
+     * 同一时间只有一个线程执行，其余线程直接插入（短暂略超上限）。
+     */
+    private void makeRoom(long now) {
+        if (!evictLock.tryLock()) return;
+        try {
+            if (buckets.size() < maxKeys) return;
+            buckets.values().removeIf(b -> now - b.state.get().updatedAt() >= idleNanos);
+            int target = maxKeys - Math.max(maxKeys / 8, 1);
+            int excess = buckets.size() - target;
+            if (excess <= 0) return;
+            double[] levels = buckets.values().stream().mapToDouble(b -> b.tokens(now)).toArray();
+            if (levels.length <= excess) {
+                buckets.clear();
+                return;
+            }
+            Arrays.sort(levels);
+            double cutoff = levels[levels.length - excess];
+            buckets.values().removeIf(b -> b.tokens(now) > cutoff);
+            for (var it = buckets.values().iterator(); it.hasNext() && buckets.size() > target; ) {
+                if (it.next().tokens(now) >= cutoff) it.remove();
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private final class Bucket {
+
+        private final AtomicReference<State> state;
+
+        Bucket(double tokens, long now) {
+            this.state = new AtomicReference<>(new State(tokens, now));
+        }
+
+        boolean tryAcquire(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = refilled(current, now);
+                if (tokens < 1) return false;
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                    return true;
+                }
+            }
+        }
+
+        double tokens(long now) {
+            return refilled(state.get(), now);
+        }
+
+        /**
+         * 补充到 now 时刻的令牌数
+         */
+        private double refilled(State s, long now) {
+            long elapsed = Math.max(now - s.updatedAt(), 0);
+            return Math.min(capacity, s.tokens() + elapsed * tokensPerNano);
+        }
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+}
@@ -0,0 +1,169 @@
+package pet.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pet.common.AuthPrincipal;
+import pet.entity.User;
+import pet.mapper.UserMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录令牌
+ * <p>
+ * 令牌为 {@code base64url(用户ID:角色:状态:签发时间:过期时间).base64url(HMAC-SHA256)}，校验只做签名和时间比较，不查库。
+ * 封禁、角色变更、修改密码后调用 {@link #revoke(Long)}，该用户在此之前签发的令牌全部作废；撤销记录只需保留到令牌有效期结束。
+ * 令牌的签发时间取读取用户状态之前的 {@link #checkpoint()}，读取之后才落地的封禁同样会使其作废；
+ * 时间点与撤销时间取自同一个单调递增的时钟，不会出现相等的情况。
+ * 启动时把有效期内 update_time 有变化的用户记为撤销，保证重启后被封禁或降级的用户旧令牌仍然无效
+ * （代价是这些用户在重启后需要重新登录一次）。
+ */
+@Slf4j
+@Component
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final UserMapper userMapper;
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+    private final ThreadLocal<Mac> macs;
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+    private final AtomicLong lastStamp = new AtomicLong();
+    private final Counter invalid;
+    private final Counter expired;
+    private final Counter revoked;
+
+    public TokenService(UserMapper userMapper,
+                        MeterRegistry registry,
+                        @Value("${app.auth.token.secret:}") String secret,
+                        @Value("${app.auth.token.ttl-seconds:604800}") long ttlSeconds) {
+        this.userMapper = userMapper;
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("未配置 app.auth.token.secret，使用随机密钥，重启后已签发的令牌全部失效");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.invalid = Counter.builder("auth.token.rejected").tag("reason", "invalid").register(registry);
+        this.expired = Counter.builder("auth.token.rejected").tag("reason", "expired").register(registry);
+        this.revoked = Counter.builder("auth.token.rejected").tag("reason", "revoked").register(registry);
+    }
+
+    @PostConstruct
+    public void loadRecentChanges() {
+        LocalDateTime since = LocalDateTime.now().minusSeconds(ttlMillis / 1000);
+        LambdaQueryWrapper<User> qw = new LambdaQueryWrapper<>();
+        qw.select(User::getId, User::getUpdateTime).gt(User::getUpdateTime, since);
+        try {
+            for (User u : userMapper.selectList(qw)) {
+                revokedBefore.put(u.getId(), u.getUpdateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + 999);
+            }
+        } catch (RuntimeException e) {
+            log.warn("加载令牌撤销记录失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 读取用户状态之前调用，返回的时间点作为签发时间；此后对该用户的撤销都会使据此签发的令牌作废
+     */
+    public long checkpoint() {
+        long now = System.currentTimeMillis();
+        return lastStamp.updateAndGet(last -> Math.max(now, last + 1));
+    }
+
+    /**
+     * 为登录成功的用户签发令牌
+     *
+     * @param asOf 读取 principal 之前取得的 {@link #checkpoint()}
+     */
+    public String issue(AuthPrincipal principal, long asOf) {
+        String payload = principal.id() + ":" + principal.role() + ":" + principal.status() + ":" + asOf + ":" + (asOf + ttlMillis);
+        String body = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return body + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(body));
+    }
+
+    /**
+     * 校验令牌，签名错误、过期或已撤销时返回 null
+     */
+    public AuthPrincipal verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            invalid.increment();
+            return null;
+        }
+        String body = token.substring(0, dot);
+        String[] fields;
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(body))) {
+                invalid.increment();
+                return null;
+            }
+            fields = new String(Base64.getUrlDecoder().decode(body), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            invalid.increment();
+            return null;
+        }
+        if (fields.length != 5) {
+            invalid.increment();
+            return null;
+        }
+        long id = Long.parseLong(fields[0]);
+        long issuedAt = Long.parseLong(fields[3]);
+        if (Long.parseLong(fields[4]) <= System.currentTimeMillis()) {
+            expired.increment();
+            return null;
+        }
+        Long before = revokedBefore.get(id);
+        if (before != null && issuedAt <= before) {
+            revoked.increment();
+            return null;
+        }
+        return new AuthPrincipal(id, fields[1], Integer.valueOf(fields[2]));
+    }
+
+    /**
+     * 作废该用户此前签发的全部令牌
+     */
+    public void revoke(Long userId) {
+        long now = checkpoint();
+        revokedBefore.values().removeIf(t -> now - t > ttlMillis);
+        revokedBefore.merge(userId, now, Math::max);
+    }
+
+    private byte[] sign(String body) {
+        return macs.get().doFinal(body.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("令牌签名初始化失败", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package pet.service;
+
+import pet.common.AuthPrincipal;
+
+/**
+ * 权限校验服务
+ * <p>
+ * 统一解析请求头 X-User-Id 对应的用户状态与角色，结果在同一请求内复用，并在短时间内缓存。
+ * 携带有效登录令牌的请求由令牌过滤器预先放入权限信息，不再查库。
+ */
+public interface AuthService {
+
+    /**
+     * 当前请求已认证的 {@link AuthPrincipal}（请求属性名）
+     */
+    String PRINCIPAL_ATTRIBUTE = AuthService.class.getName() + ".principal";
+
+    /**
+     * 校验用户已登录且未被封禁
+     */
+    AuthPrincipal requireUser(Long userId);
+
+    /**
+     * 校验用户为未被封禁的管理员
+     */
+    AuthPrincipal requireAdmin(Long userId);
+
+    /**
+     * 用户状态或角色变更后立即失效缓存，并作废该用户已签发的登录令牌
+     */
+    void evict(Long userId);
+}
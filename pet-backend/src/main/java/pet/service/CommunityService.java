@@ -4,6 +4,7 @@ import org.springframework.web.multipart.MultipartFile;
 import pet.dto.CommunityCommentCreateDTO;
 import pet.vo.CommunityCommentVO;
 import pet.vo.CommunityPostVO;
+import pet.vo.CursorPageVO;
 
 import java.util.List;
 
@@ -14,20 +15,42 @@ public interface CommunityService {
     CommunityPostVO createPost(Long userId, String content, MultipartFile[] files);
 
     /**
-     * 动态列表（按时间倒序）
+     * 动态列表（按时间倒序，只返回最新的一批）
+     *
+     * @deprecated 改用 {@link #listFeed} 游标分页
      */
+    @Deprecated
     List<CommunityPostVO> listPosts(Long userId);
 
+    /**
+     * 动态流（游标分页，按 createTime、id 倒序）
+     *
+     * @param cursor 上一页返回的 nextCursor，为空表示第一页
+     * @param size   每页条数
+     */
+    CursorPageVO<CommunityPostVO> listFeed(Long userId, String cursor, int size);
+
     /**
      * 删除动态（仅允许删除自己的动态）
      */
     void deletePost(Long userId, Long postId);
 
     /**
-     * 获取动态评论列表
+     * 动态评论列表（按时间正序，只返回最早的一页）
+     *
+     * @deprecated 改用 {@link #listCommentPage} 游标分页
      */
+    @Deprecated
     List<CommunityCommentVO> listComments(Long userId, Long postId);
 
+    /**
+     * 评论分页（游标分页，按 createTime、id 正序）
+     *
+     * @param cursor 上一页返回的 nextCursor，为空表示第一页
+     * @param size   每页条数，超过上限时按上限处理
+     */
+    CursorPageVO<CommunityCommentVO> listCommentPage(Long userId, Long postId, String cursor, int size);
+
     /**
      * 新增评论
      */
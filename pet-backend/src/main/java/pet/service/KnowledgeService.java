@@ -1,7 +1,9 @@
 package pet.service;
 
+import pet.cache.KnowledgeArticleCache;
 import pet.vo.KnowledgeArticleVO;
 import pet.vo.KnowledgeCategoryVO;
+import pet.vo.PageVO;
 
 import java.util.List;
 
@@ -9,5 +11,20 @@ public interface KnowledgeService {
     List<KnowledgeCategoryVO> listCategories();
     List<KnowledgeArticleVO> listArticles(Long categoryId, String keyword);
     KnowledgeArticleVO getArticle(Long id);
+
+    /**
+     * 文章详情的已序列化响应（带 ETag），命中缓存时只按主键查版本，不读正文
+     */
+    KnowledgeArticleCache.Rendered getRenderedArticle(Long id);
+
+    /**
+     * 分页列出文章摘要（不含正文）：无关键词时按发布时间倒序，有关键词时按相关度排序
+     */
+    PageVO<KnowledgeArticleVO> pageArticles(Long categoryId, String keyword, int page, int size);
+
+    /**
+     * 全文检索文章（与 pageArticles 同一套站内索引，按相关度排序，带命中摘要）
+     */
+    PageVO<KnowledgeArticleVO> searchArticles(Long categoryId, String keyword, int page, int size);
 }
 
@@ -0,0 +1,41 @@
+package pet.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 媒体文件存储服务
+ * <p>
+ * 上传文件按内容 SHA-256 寻址存放在 app.upload-dir/media 下，相同内容只保存一份，
+ * 并通过引用计数跟踪使用情况，引用数归零的文件由定时任务清理。
+ */
+public interface MediaStorageService {
+
+    /**
+     * 校验是否为支持的图片类型（jpg/png/gif/webp）
+     */
+    void checkImage(MultipartFile file);
+
+    /**
+     * 保存图片并登记一次引用
+     *
+     * @return 访问 URL（/uploads/media/...）
+     */
+    String storeImage(MultipartFile file);
+
+    /**
+     * 业务直接引用已有 URL 时登记一次引用（非托管 URL 忽略）
+     */
+    void retain(String url);
+
+    /**
+     * 业务不再引用某个 URL 时释放一次引用（非托管 URL 忽略）
+     */
+    void release(String url);
+
+    /**
+     * 清理引用数为 0 的文件
+     *
+     * @return 删除的文件数
+     */
+    int purgeOrphans();
+}
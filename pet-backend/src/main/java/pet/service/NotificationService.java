@@ -0,0 +1,43 @@
+package pet.service;
+
+import pet.entity.PetReminder;
+import pet.vo.CursorPageVO;
+import pet.vo.NotificationVO;
+import pet.vo.ReminderVO;
+
+import java.util.List;
+
+public interface NotificationService {
+
+    /**
+     * 站内通知（游标分页，最新在前）
+     *
+     * @param cursor 上一页返回的 nextCursor，为空表示第一页
+     */
+    CursorPageVO<NotificationVO> listNotifications(Long userId, String cursor, int size);
+
+    /**
+     * 未读通知数
+     */
+    long countUnread(Long userId);
+
+    /**
+     * 标记单条通知为已读
+     */
+    void markRead(Long userId, Long notificationId);
+
+    /**
+     * 全部标记为已读
+     */
+    void markAllRead(Long userId);
+
+    /**
+     * 当前用户待提醒的疫苗、驱虫事项，按到期时间排序
+     */
+    List<ReminderVO> listUpcomingReminders(Long userId);
+
+    /**
+     * 提醒到期：标记为已提醒并写入通知，提醒已被处理或取消时返回 false
+     */
+    boolean deliverReminder(PetReminder reminder, String title, String content);
+}
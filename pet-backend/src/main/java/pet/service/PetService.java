@@ -1,14 +1,21 @@
 package pet.service;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.web.multipart.MultipartFile;
 
 import pet.dto.HealthRecordCreateDTO;
+import pet.export.HealthRecordExporter;
+import pet.export.HealthRecordImporter;
 import pet.dto.HealthRecordUpdateDTO;
 import pet.dto.PetCreateDTO;
 import pet.dto.PetUpdateDTO;
+import pet.vo.CursorPageVO;
+import pet.vo.HealthRecordImportVO;
 import pet.vo.HealthRecordVO;
+import pet.vo.PetOverviewVO;
 import pet.vo.PetVO;
 
 public interface PetService {
@@ -17,6 +24,11 @@ public interface PetService {
      */
     List<PetVO> listMyPets(Long userId);
 
+    /**
+     * 获取当前用户的宠物列表，附带每只宠物的健康记录数和最近一条健康记录
+     */
+    List<PetOverviewVO> listPetOverview(Long userId);
+
     /**
      * 创建宠物档案
      */
@@ -42,6 +54,35 @@ public interface PetService {
      */
     List<HealthRecordVO> listHealthRecords(Long userId, Long petId);
 
+    /**
+     * 按时间范围获取健康记录（不含内容），按记录时间倒序
+     *
+     * @param from 起始时间（含），为空表示不限
+     * @param to   截止时间（含），为空表示不限
+     */
+    List<HealthRecordVO> listHealthRecordsInRange(Long userId, Long petId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 健康记录分页（游标分页，不含内容），按记录时间倒序
+     *
+     * @param cursor 上一页返回的 nextCursor，为空表示第一页
+     */
+    CursorPageVO<HealthRecordVO> pageHealthRecords(Long userId, Long petId, String cursor, int size);
+
+    /**
+     * 导出宠物的全部健康记录
+     * <p>
+     * 此处只校验归属和格式，不查询健康记录；返回的导出任务在写响应体时交给 {@link HealthRecordExporter#write} 流式写出
+     *
+     * @param format csv 或 ndjson，为空时为 csv
+     */
+    HealthRecordExporter.Export exportHealthRecords(Long userId, Long petId, String format);
+
+    /**
+     * 批量导入健康记录（CSV 或 JSON 数组），任一行校验失败时不写入并返回逐行错误
+     */
+    HealthRecordImportVO importHealthRecords(Long userId, Long petId, HealthRecordImporter.Format format, InputStream in);
+
     /**
      * 创建健康记录
      */
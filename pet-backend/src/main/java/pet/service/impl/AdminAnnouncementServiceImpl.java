@@ -4,11 +4,11 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import pet.cache.SiteContentCache;
 import pet.entity.Announcement;
-import pet.entity.User;
 import pet.mapper.AnnouncementMapper;
-import pet.mapper.UserMapper;
 import pet.service.AdminAnnouncementService;
+import pet.service.AuthService;
 import pet.vo.AnnouncementVO;
 import pet.vo.PageVO;
 
@@ -21,11 +21,12 @@ import java.util.List;
 public class AdminAnnouncementServiceImpl implements AdminAnnouncementService {
 
     private final AnnouncementMapper announcementMapper;
-    private final UserMapper userMapper;
+    private final AuthService authService;
+    private final SiteContentCache siteContentCache;
 
     @Override
     public PageVO<AnnouncementVO> page(Long operatorUserId, int page, int size, String keyword, Integer status) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (page < 1) page = 1;
         if (size < 1) size = 10;
         if (size > 100) size = 100;
@@ -45,7 +46,7 @@ public class AdminAnnouncementServiceImpl implements AdminAnnouncementService {
 
     @Override
     public AnnouncementVO create(Long operatorUserId, String title, String content, Integer status) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (title == null || title.isBlank()) throw new RuntimeException("标题不能为空");
         if (content == null || content.isBlank()) throw new RuntimeException("内容不能为空");
         if (status == null) status = 0;
@@ -57,12 +58,13 @@ public class AdminAnnouncementServiceImpl implements AdminAnnouncementService {
         a.setCreateTime(LocalDateTime.now());
         a.setUpdateTime(LocalDateTime.now());
         announcementMapper.insert(a);
+        siteContentCache.refreshAnnouncements();
         return toVO(a);
     }
 
     @Override
     public AnnouncementVO updateStatus(Long operatorUserId, Long id, Integer status) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (id == null) throw new RuntimeException("公告ID不能为空");
         if (status == null || (status != 0 && status != 1)) throw new RuntimeException("状态不合法");
         Announcement a = announcementMapper.selectById(id);
@@ -70,17 +72,10 @@ public class AdminAnnouncementServiceImpl implements AdminAnnouncementService {
         a.setStatus(status);
         a.setUpdateTime(LocalDateTime.now());
         announcementMapper.updateById(a);
+        siteContentCache.refreshAnnouncements();
         return toVO(a);
     }
 
-    private void ensureAdmin(Long operatorUserId) {
-        if (operatorUserId == null) throw new RuntimeException("未登录");
-        User user = userMapper.selectById(operatorUserId);
-        if (user == null) throw new RuntimeException("用户不存在");
-        if (user.getStatus() != null && user.getStatus() == 1) throw new RuntimeException("账号已被封禁");
-        if (user.getRole() == null || !"admin".equals(user.getRole())) throw new RuntimeException("无管理员权限");
-    }
-
     private AnnouncementVO toVO(Announcement a) {
         AnnouncementVO vo = new AnnouncementVO();
         vo.setId(a.getId());
@@ -4,19 +4,26 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import pet.cache.KnowledgeArticleCache;
+import pet.cache.KnowledgeCatalogCache;
+import pet.common.FullTextQuery;
 import pet.entity.KnowledgeArticle;
 import pet.entity.KnowledgeCategory;
-import pet.entity.User;
 import pet.mapper.KnowledgeArticleMapper;
 import pet.mapper.KnowledgeCategoryMapper;
-import pet.mapper.UserMapper;
+import pet.search.InvertedIndex;
+import pet.search.SearchHits;
+import pet.search.SearchIndexService;
 import pet.service.AdminKnowledgeService;
+import pet.service.AuthService;
 import pet.vo.KnowledgeArticleVO;
 import pet.vo.KnowledgeCategoryVO;
 import pet.vo.PageVO;
 
 import java.time.LocalDateTime;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -24,11 +31,14 @@ public class AdminKnowledgeServiceImpl implements AdminKnowledgeService {
 
     private final KnowledgeCategoryMapper categoryMapper;
     private final KnowledgeArticleMapper articleMapper;
-    private final UserMapper userMapper;
+    private final AuthService authService;
+    private final SearchIndexService searchIndexService;
+    private final KnowledgeCatalogCache catalogCache;
+    private final KnowledgeArticleCache articleCache;
 
     @Override
     public List<KnowledgeCategoryVO> listCategories(Long operatorUserId, String keyword) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         LambdaQueryWrapper<KnowledgeCategory> qw = new LambdaQueryWrapper<>();
         if (keyword != null && !keyword.isBlank()) {
             qw.like(KnowledgeCategory::getName, keyword.trim());
@@ -42,7 +52,7 @@ public class AdminKnowledgeServiceImpl implements AdminKnowledgeService {
 
     @Override
     public KnowledgeCategoryVO createCategory(Long operatorUserId, String name, Integer sort) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (name == null || name.isBlank()) throw new RuntimeException("分类名称不能为空");
         KnowledgeCategory c = new KnowledgeCategory();
         c.setName(name.trim());
@@ -50,12 +60,13 @@ public class AdminKnowledgeServiceImpl implements AdminKnowledgeService {
         c.setCreateTime(LocalDateTime.now());
         c.setUpdateTime(LocalDateTime.now());
         categoryMapper.insert(c);
+        catalogCache.reload();
         return toCategoryVO(c);
     }
 
     @Override
     public KnowledgeCategoryVO updateCategory(Long operatorUserId, Long id, String name, Integer sort) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (id == null) throw new RuntimeException("分类ID不能为空");
         KnowledgeCategory c = categoryMapper.selectById(id);
         if (c == null) throw new RuntimeException("分类不存在");
@@ -67,12 +78,14 @@ public class AdminKnowledgeServiceImpl implements AdminKnowledgeService {
         if (sort != null) c.setSort(sort);
         c.setUpdateTime(LocalDateTime.now());
         categoryMapper.updateById(c);
+        catalogCache.reload();
+        articleCache.clear();
         return toCategoryVO(c);
     }
 
     @Override
     public void deleteCategory(Long operatorUserId, Long id) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (id == null) throw new RuntimeException("分类ID不能为空");
         LambdaQueryWrapper<KnowledgeArticle> qw = new LambdaQueryWrapper<>();
         qw.eq(KnowledgeArticle::getCategoryId, id);
@@ -80,49 +93,55 @@ public class AdminKnowledgeServiceImpl implements AdminKnowledgeService {
             throw new RuntimeException("分类下存在文章，无法删除");
         }
         categoryMapper.deleteById(id);
+        catalogCache.reload();
     }
 
     @Override
     public PageVO<KnowledgeArticleVO> pageArticles(Long operatorUserId, int page, int size, Long categoryId, String keyword) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (page < 1) page = 1;
         if (size < 1) size = 10;
         if (size > 100) size = 100;
-        LambdaQueryWrapper<KnowledgeArticle> qw = new LambdaQueryWrapper<>();
-        if (categoryId != null) qw.eq(KnowledgeArticle::getCategoryId, categoryId);
-        if (keyword != null && !keyword.isBlank()) {
-            String k = keyword.trim();
-            qw.and(w -> w.like(KnowledgeArticle::getTitle, k).or().like(KnowledgeArticle::getContent, k));
+        FullTextQuery query = FullTextQuery.parse(keyword);
+        SearchHits hits = query == null ? null
+                : searchIndexService.searchArticles(keyword, categoryId, InvertedIndex.Order.NEWEST, (page - 1) * size, size);
+        List<KnowledgeArticle> records;
+        long total;
+        if (hits != null) {
+            total = hits.total();
+            records = hits.ids().isEmpty() ? Collections.emptyList()
+                    : hits.arrange(articleMapper.selectList(KnowledgeArticleMapper.listQuery().in(KnowledgeArticle::getId, hits.ids())),
+                    KnowledgeArticle::getId);
+        } else {
+            LambdaQueryWrapper<KnowledgeArticle> qw = KnowledgeArticleMapper.listQuery();
+            if (categoryId != null) qw.eq(KnowledgeArticle::getCategoryId, categoryId);
+            if (query != null) {
+                qw.apply("MATCH(title, content) AGAINST({0} IN BOOLEAN MODE)", query.booleanQuery());
+            }
+            qw.orderByDesc(KnowledgeArticle::getCreateTime);
+            Page<KnowledgeArticle> result = articleMapper.selectPage(new Page<>(page, size), qw);
+            total = result.getTotal();
+            records = result.getRecords();
         }
-        qw.orderByDesc(KnowledgeArticle::getCreateTime);
-        Page<KnowledgeArticle> p = new Page<>(page, size);
-        Page<KnowledgeArticle> result = articleMapper.selectPage(p, qw);
-        List<KnowledgeArticle> records = result.getRecords();
-        if (records.isEmpty()) return PageVO.of(result.getTotal(), Collections.emptyList());
-        Set<Long> categoryIds = new HashSet<>();
-        for (KnowledgeArticle a : records) categoryIds.add(a.getCategoryId());
-        Map<Long, KnowledgeCategory> categoryById = new HashMap<>();
-        for (KnowledgeCategory c : categoryMapper.selectBatchIds(categoryIds)) categoryById.put(c.getId(), c);
         List<KnowledgeArticleVO> list = new ArrayList<>();
         for (KnowledgeArticle a : records) {
-            list.add(toArticleVO(a, categoryById.get(a.getCategoryId()), false));
+            list.add(toArticleVO(a, false));
         }
-        return PageVO.of(result.getTotal(), list);
+        return PageVO.of(total, list);
     }
 
     @Override
     public KnowledgeArticleVO getArticle(Long operatorUserId, Long id) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (id == null) throw new RuntimeException("文章ID不能为空");
         KnowledgeArticle a = articleMapper.selectById(id);
         if (a == null) throw new RuntimeException("文章不存在");
-        KnowledgeCategory c = categoryMapper.selectById(a.getCategoryId());
-        return toArticleVO(a, c, true);
+        return toArticleVO(a, true);
     }
 
     @Override
     public KnowledgeArticleVO createArticle(Long operatorUserId, Long categoryId, String title, String summary, String cover, String content) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (categoryId == null) throw new RuntimeException("分类不能为空");
         if (categoryMapper.selectById(categoryId) == null) throw new RuntimeException("分类不存在");
         if (title == null || title.isBlank()) throw new RuntimeException("标题不能为空");
@@ -136,13 +155,14 @@ public class AdminKnowledgeServiceImpl implements AdminKnowledgeService {
         a.setCreateTime(LocalDateTime.now());
         a.setUpdateTime(LocalDateTime.now());
         articleMapper.insert(a);
-        KnowledgeCategory c = categoryMapper.selectById(categoryId);
-        return toArticleVO(a, c, true);
+        searchIndexService.onArticleSaved(a);
+        catalogCache.reload();
+        return toArticleVO(a, true);
     }
 
     @Override
     public KnowledgeArticleVO updateArticle(Long operatorUserId, Long id, Long categoryId, String title, String summary, String cover, String content) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (id == null) throw new RuntimeException("文章ID不能为空");
         KnowledgeArticle a = articleMapper.selectById(id);
         if (a == null) throw new RuntimeException("文章不存在");
@@ -164,15 +184,20 @@ public class AdminKnowledgeServiceImpl implements AdminKnowledgeService {
         }
         a.setUpdateTime(LocalDateTime.now());
         articleMapper.updateById(a);
-        KnowledgeCategory c = categoryMapper.selectById(a.getCategoryId());
-        return toArticleVO(a, c, true);
+        searchIndexService.onArticleSaved(a);
+        catalogCache.reload();
+        articleCache.evict(id);
+        return toArticleVO(a, true);
     }
 
     @Override
     public void deleteArticle(Long operatorUserId, Long id) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (id == null) throw new RuntimeException("文章ID不能为空");
         articleMapper.deleteById(id);
+        searchIndexService.onArticleDeleted(id);
+        catalogCache.reload();
+        articleCache.evict(id);
     }
 
     private KnowledgeCategoryVO toCategoryVO(KnowledgeCategory c) {
@@ -183,11 +208,11 @@ public class AdminKnowledgeServiceImpl implements AdminKnowledgeService {
         return vo;
     }
 
-    private KnowledgeArticleVO toArticleVO(KnowledgeArticle a, KnowledgeCategory c, boolean withContent) {
+    private KnowledgeArticleVO toArticleVO(KnowledgeArticle a, boolean withContent) {
         KnowledgeArticleVO vo = new KnowledgeArticleVO();
         vo.setId(a.getId());
         vo.setCategoryId(a.getCategoryId());
-        vo.setCategoryName(c == null ? null : c.getName());
+        vo.setCategoryName(catalogCache.categoryName(a.getCategoryId()));
         vo.setTitle(a.getTitle());
         vo.setSummary(a.getSummary());
         vo.setCover(a.getCover());
@@ -202,12 +227,5 @@ public class AdminKnowledgeServiceImpl implements AdminKnowledgeService {
         return t.isEmpty() ? null : t;
     }
 
-    private void ensureAdmin(Long operatorUserId) {
-        if (operatorUserId == null) throw new RuntimeException("未登录");
-        User user = userMapper.selectById(operatorUserId);
-        if (user == null) throw new RuntimeException("用户不存在");
-        if (user.getStatus() != null && user.getStatus() == 1) throw new RuntimeException("账号已被封禁");
-        if (user.getRole() == null || !"admin".equals(user.getRole())) throw new RuntimeException("无管理员权限");
-    }
 }
 
@@ -1,25 +1,19 @@
 package pet.service.impl;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import pet.cache.SiteContentCache;
 import pet.dto.AdminUpdateSiteConfigDTO;
 import pet.entity.SiteConfig;
-import pet.entity.User;
 import pet.mapper.SiteConfigMapper;
-import pet.mapper.UserMapper;
 import pet.service.AdminSiteConfigService;
+import pet.service.AuthService;
+import pet.service.MediaStorageService;
 import pet.vo.SiteConfigVO;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.util.Set;
-import java.util.UUID;
+import java.util.Objects;
 
 /**
  * 管理员网站配置服务实现类
@@ -29,14 +23,13 @@ import java.util.UUID;
 public class AdminSiteConfigServiceImpl implements AdminSiteConfigService {
 
     private final SiteConfigMapper siteConfigMapper;
-    private final UserMapper userMapper;
-
-    @Value("${app.upload-dir:uploads}")
-    private String uploadDir;
+    private final AuthService authService;
+    private final MediaStorageService mediaStorageService;
+    private final SiteContentCache siteContentCache;
 
     @Override
     public SiteConfigVO get(Long operatorUserId) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         SiteConfig cfg = siteConfigMapper.selectById(1L);
         if (cfg == null) {
             cfg = new SiteConfig();
@@ -45,19 +38,21 @@ public class AdminSiteConfigServiceImpl implements AdminSiteConfigService {
             cfg.setCreateTime(LocalDateTime.now());
             cfg.setUpdateTime(LocalDateTime.now());
             siteConfigMapper.insert(cfg);
+            siteContentCache.refreshSiteConfig();
         }
         return toVO(cfg);
     }
 
     @Override
     public SiteConfigVO update(Long operatorUserId, AdminUpdateSiteConfigDTO dto) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         SiteConfig cfg = siteConfigMapper.selectById(1L);
         if (cfg == null) {
             cfg = new SiteConfig();
             cfg.setId(1L);
             cfg.setCreateTime(LocalDateTime.now());
         }
+        String oldLogo = cfg.getLogo();
         if (dto != null) {
             if (dto.getSiteName() != null) {
                 String name = dto.getSiteName().trim();
@@ -76,6 +71,11 @@ public class AdminSiteConfigServiceImpl implements AdminSiteConfigService {
         } else {
             siteConfigMapper.updateById(cfg);
         }
+        if (!Objects.equals(oldLogo, cfg.getLogo())) {
+            mediaStorageService.retain(cfg.getLogo());
+            mediaStorageService.release(oldLogo);
+        }
+        siteContentCache.refreshSiteConfig();
         return toVO(cfg);
     }
 
@@ -88,38 +88,13 @@ public class AdminSiteConfigServiceImpl implements AdminSiteConfigService {
      */
     @Override
     public SiteConfigVO uploadLogo(Long operatorUserId, MultipartFile file) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
 
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("请选择 Logo 文件");
         }
 
-        // 验证文件类型
-        String contentType = file.getContentType();
-        Set<String> allowedTypes = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
-        if (contentType == null || !allowedTypes.contains(contentType)) {
-            throw new RuntimeException("仅支持上传 jpg/png/gif/webp 图片");
-        }
-
-        // 根据文件类型确定扩展名
-        String extension = switch (contentType) {
-            case "image/jpeg" -> ".jpg";
-            case "image/png" -> ".png";
-            case "image/gif" -> ".gif";
-            case "image/webp" -> ".webp";
-            default -> "";
-        };
-
-        // 生成唯一文件名并保存
-        String filename = UUID.randomUUID() + extension;
-        Path logoDir = Paths.get(uploadDir, "logos");
-        try {
-            Files.createDirectories(logoDir);
-            Path target = logoDir.resolve(filename).normalize();
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new RuntimeException("Logo 上传失败: " + e.getMessage());
-        }
+        String logoUrl = mediaStorageService.storeImage(file);
 
         // 更新网站配置中的 Logo 路径
         SiteConfig cfg = siteConfigMapper.selectById(1L);
@@ -129,7 +104,8 @@ public class AdminSiteConfigServiceImpl implements AdminSiteConfigService {
             cfg.setSiteName("宠物管理系统");
             cfg.setCreateTime(LocalDateTime.now());
         }
-        cfg.setLogo("/uploads/logos/" + filename);
+        String oldLogo = cfg.getLogo();
+        cfg.setLogo(logoUrl);
         cfg.setUpdateTime(LocalDateTime.now());
 
         if (siteConfigMapper.selectById(1L) == null) {
@@ -137,6 +113,8 @@ public class AdminSiteConfigServiceImpl implements AdminSiteConfigService {
         } else {
             siteConfigMapper.updateById(cfg);
         }
+        mediaStorageService.release(oldLogo);
+        siteContentCache.refreshSiteConfig();
 
         return toVO(cfg);
     }
@@ -147,14 +125,6 @@ public class AdminSiteConfigServiceImpl implements AdminSiteConfigService {
         return t.isEmpty() ? null : t;
     }
 
-    private void ensureAdmin(Long operatorUserId) {
-        if (operatorUserId == null) throw new RuntimeException("未登录");
-        User user = userMapper.selectById(operatorUserId);
-        if (user == null) throw new RuntimeException("用户不存在");
-        if (user.getStatus() != null && user.getStatus() == 1) throw new RuntimeException("账号已被封禁");
-        if (user.getRole() == null || !"admin".equals(user.getRole())) throw new RuntimeException("无管理员权限");
-    }
-
     private SiteConfigVO toVO(SiteConfig cfg) {
         SiteConfigVO vo = new SiteConfigVO();
         vo.setId(cfg.getId());
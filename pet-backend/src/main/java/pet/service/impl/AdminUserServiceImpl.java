@@ -10,9 +10,11 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 
 import lombok.RequiredArgsConstructor;
+import pet.cache.UserSummaryCache;
 import pet.entity.User;
 import pet.mapper.UserMapper;
 import pet.service.AdminUserService;
+import pet.service.AuthService;
 import pet.vo.AdminUserVO;
 import pet.vo.PageVO;
 
@@ -21,11 +23,13 @@ import pet.vo.PageVO;
 public class AdminUserServiceImpl implements AdminUserService {
 
     private final UserMapper userMapper;
+    private final AuthService authService;
+    private final UserSummaryCache userSummaryCache;
 
     @Override
     public PageVO<AdminUserVO> pageUsers(Long operatorUserId, int page, int size, String keyword, Integer status,
             String role) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (page < 1)
             page = 1;
         if (size < 1)
@@ -59,7 +63,7 @@ public class AdminUserServiceImpl implements AdminUserService {
 
     @Override
     public AdminUserVO updateUserStatus(Long operatorUserId, Long targetUserId, Integer status) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (targetUserId == null)
             throw new RuntimeException("用户ID不能为空");
         if (status == null || (status != 0 && status != 1))
@@ -70,12 +74,14 @@ public class AdminUserServiceImpl implements AdminUserService {
         user.setStatus(status);
         user.setUpdateTime(LocalDateTime.now());
         userMapper.updateById(user);
+        userSummaryCache.evict(targetUserId);
+        authService.evict(targetUserId);
         return toVO(user);
     }
 
     @Override
     public AdminUserVO updateUserRole(Long operatorUserId, Long targetUserId, String role) {
-        ensureAdmin(operatorUserId);
+        authService.requireAdmin(operatorUserId);
         if (targetUserId == null)
             throw new RuntimeException("用户ID不能为空");
         if (role == null || (!"user".equals(role) && !"admin".equals(role)))
@@ -86,21 +92,11 @@ public class AdminUserServiceImpl implements AdminUserService {
         user.setRole(role);
         user.setUpdateTime(LocalDateTime.now());
         userMapper.updateById(user);
+        userSummaryCache.evict(targetUserId);
+        authService.evict(targetUserId);
         return toVO(user);
     }
 
-    private void ensureAdmin(Long operatorUserId) {
-        if (operatorUserId == null)
-            throw new RuntimeException("未登录");
-        User user = userMapper.selectById(operatorUserId);
-        if (user == null)
-            throw new RuntimeException("用户不存在");
-        if (user.getStatus() != null && user.getStatus() == 1)
-            throw new RuntimeException("账号已被封禁");
-        if (user.getRole() == null || !"admin".equals(user.getRole()))
-            throw new RuntimeException("无管理员权限");
-    }
-
     private AdminUserVO toVO(User user) {
         AdminUserVO vo = new AdminUserVO();
         vo.setId(user.getId());
@@ -0,0 +1,110 @@
+package pet.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import pet.common.AuthPrincipal;
+import pet.entity.User;
+import pet.mapper.UserMapper;
+import pet.security.TokenService;
+import pet.service.AuthService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class AuthServiceImpl implements AuthService {
+
+    private final UserMapper userMapper;
+    private final TokenService tokenService;
+    private final long ttlNanos;
+    /**
+     * 按访问顺序排列，超出容量时淘汰最久未使用的条目（由 this 保护）
+     */
+    private final LinkedHashMap<Long, Entry> entries;
+
+    /**
+     * 失效次数，用于丢弃与失效并发的过期加载结果（由 this 保护）
+     */
+    private long evictions;
+
+    public AuthServiceImpl(UserMapper userMapper,
+                           TokenService tokenService,
+                           @Value("${app.auth.principal-ttl-seconds:30}") long ttlSeconds,
+                           @Value("${app.auth.principal-cache-size:10000}") int maxSize) {
+        this.userMapper = userMapper;
+        this.tokenService = tokenService;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        int capacity = Math.max(maxSize, 1);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public AuthPrincipal requireUser(Long userId) {
+        if (userId == null) throw new RuntimeException("未登录");
+        AuthPrincipal principal = resolve(userId);
+        if (principal == null) throw new RuntimeException("用户不存在");
+        if (principal.isBanned()) throw new RuntimeException("账号已被封禁");
+        return principal;
+    }
+
+    @Override
+    public AuthPrincipal requireAdmin(Long userId) {
+        AuthPrincipal principal = requireUser(userId);
+        if (!principal.isAdmin()) throw new RuntimeException("无管理员权限");
+        return principal;
+    }
+
+    @Override
+    public void evict(Long userId) {
+        synchronized (this) {
+            evictions++;
+            entries.remove(userId);
+        }
+        tokenService.revoke(userId);
+    }
+
+    private AuthPrincipal resolve(Long userId) {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs != null && attrs.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                instanceof AuthPrincipal p && p.id().equals(userId)) {
+            return p;
+        }
+
+        long now = System.nanoTime();
+        long startEvictions;
+        AuthPrincipal principal = null;
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null && now - entry.expiresAt() < 0) principal = entry.principal();
+            startEvictions = evictions;
+        }
+        if (principal == null) {
+            principal = load(userId);
+            if (principal == null) return null;
+            synchronized (this) {
+                // 加载期间发生过封禁、改角色等失效时，读到的可能是旧状态，只用于本次请求，不写入缓存
+                if (evictions == startEvictions) entries.put(userId, new Entry(principal, now + ttlNanos));
+            }
+        }
+        if (attrs != null) attrs.setAttribute(PRINCIPAL_ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        return principal;
+    }
+
+    private AuthPrincipal load(Long userId) {
+        LambdaQueryWrapper<User> qw = new LambdaQueryWrapper<>();
+        qw.select(User::getId, User::getRole, User::getStatus).eq(User::getId, userId);
+        User user = userMapper.selectOne(qw);
+        return user == null ? null : new AuthPrincipal(user.getId(), user.getRole(), user.getStatus());
+    }
+
+    private record Entry(AuthPrincipal principal, long expiresAt) {
+    }
+}
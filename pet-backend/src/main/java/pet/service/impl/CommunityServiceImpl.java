@@ -4,26 +4,30 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import pet.cache.CommunityFeedCache;
+import pet.cache.UserSummaryCache;
+import pet.common.PageCursor;
 import pet.dto.CommunityCommentCreateDTO;
 import pet.entity.CommunityComment;
 import pet.entity.CommunityPost;
 import pet.entity.CommunityPostImage;
-import pet.entity.User;
 import pet.mapper.CommunityCommentMapper;
 import pet.mapper.CommunityPostImageMapper;
 import pet.mapper.CommunityPostMapper;
-import pet.mapper.UserMapper;
+import pet.service.AuthService;
 import pet.service.CommunityService;
+import pet.search.SearchIndexService;
+import pet.service.MediaStorageService;
+import pet.upload.ImageUploadPipeline;
+import pet.upload.ImageVariants;
 import pet.vo.CommunityCommentVO;
 import pet.vo.CommunityPostVO;
 import pet.vo.CommunityUserVO;
+import pet.vo.CursorPageVO;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -31,82 +35,121 @@ import java.util.*;
 @RequiredArgsConstructor
 public class CommunityServiceImpl implements CommunityService {
 
+    /**
+     * 旧版不分页动态列表只返回最新的条数
+     */
+    private static final int LEGACY_LIST_SIZE = 50;
+
     private final CommunityPostMapper postMapper;
     private final CommunityPostImageMapper imageMapper;
     private final CommunityCommentMapper commentMapper;
-    private final UserMapper userMapper;
+    private final AuthService authService;
+    private final CommunityFeedCache feedCache;
+    private final UserSummaryCache userSummaryCache;
+    private final ImageUploadPipeline uploadPipeline;
+    private final MediaStorageService mediaStorageService;
+    private final SearchIndexService searchIndexService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Value("${app.upload-dir:uploads}")
-    private String uploadDir;
+    @Value("${app.community.comment-page-max-size:50}")
+    private int commentPageMaxSize;
 
     @Override
     public CommunityPostVO createPost(Long userId, String content, MultipartFile[] files) {
-        User user = getActiveUser(userId);
+        authService.requireUser(userId);
         if (content == null || content.isBlank()) {
             throw new RuntimeException("动态内容不能为空");
         }
 
+        List<MultipartFile> images = new ArrayList<>();
+        if (files != null) {
+            for (MultipartFile file : files) {
+                if (file == null || file.isEmpty()) continue;
+                mediaStorageService.checkImage(file);
+                images.add(file);
+            }
+        }
+        // 图片先写盘并登记引用，不占用数据库事务；事务只包住动态和图片行的写入
+        List<String> urls = uploadPipeline.storeAll(images, mediaStorageService::storeImage, mediaStorageService::release);
+
+        CommunityPost post;
+        try {
+            post = transactionTemplate.execute(status -> insertPost(userId, content.trim(), urls));
+        } catch (RuntimeException e) {
+            urls.forEach(mediaStorageService::release);
+            throw e;
+        }
+
+        CommunityPostVO vo = toPostVO(post, userSummaryCache.get(userId), urls);
+        feedCache.onPostCreated(vo);
+        searchIndexService.onPostCreated(post);
+        return vo;
+    }
+
+    private CommunityPost insertPost(Long userId, String content, List<String> urls) {
+        // DATETIME 列只保留到秒，与库中值保持一致，保证游标和缓存排序正确
+        LocalDateTime now = LocalDateTime.now().withNano(0);
         CommunityPost post = new CommunityPost();
         post.setUserId(userId);
-        post.setContent(content.trim());
-        post.setCreateTime(LocalDateTime.now());
-        post.setUpdateTime(LocalDateTime.now());
+        post.setContent(content);
+        post.setCommentCount(0);
+        post.setImageCount(urls.size());
+        post.setCreateTime(now);
+        post.setUpdateTime(now);
         postMapper.insert(post);
 
-        List<String> urls = new ArrayList<>();
-        if (files != null && files.length > 0) {
-            for (MultipartFile file : files) {
-                if (file == null || file.isEmpty()) continue;
-                urls.add(saveImage(file, "community"));
-            }
+        if (!urls.isEmpty()) {
+            List<CommunityPostImage> rows = new ArrayList<>(urls.size());
             for (String url : urls) {
                 CommunityPostImage img = new CommunityPostImage();
                 img.setPostId(post.getId());
                 img.setUrl(url);
-                img.setCreateTime(LocalDateTime.now());
-                imageMapper.insert(img);
+                img.setCreateTime(now);
+                rows.add(img);
             }
+            imageMapper.insertBatch(rows);
         }
-
-        return toPostVO(post, user, urls);
+        return post;
     }
 
     @Override
+    @Deprecated
     public List<CommunityPostVO> listPosts(Long userId) {
-        ensureUserId(userId);
-        LambdaQueryWrapper<CommunityPost> qw = new LambdaQueryWrapper<>();
-        qw.orderByDesc(CommunityPost::getCreateTime);
-        List<CommunityPost> posts = postMapper.selectList(qw);
-        if (posts.isEmpty()) return Collections.emptyList();
+        return listFeed(userId, null, LEGACY_LIST_SIZE).getList();
+    }
 
-        Set<Long> userIds = new HashSet<>();
-        List<Long> postIds = new ArrayList<>();
-        for (CommunityPost p : posts) {
-            userIds.add(p.getUserId());
-            postIds.add(p.getId());
-        }
+    @Override
+    public CursorPageVO<CommunityPostVO> listFeed(Long userId, String cursor, int size) {
+        ensureUserId(userId);
+        if (size < 1) size = 10;
+        if (size > 50) size = 50;
+        PageCursor after = PageCursor.decode(cursor);
+        CursorPageVO<CommunityPostVO> cached = feedCache.page(after, size, this::loadFeedHead);
+        if (cached != null) return CursorPageVO.of(withCurrentAuthors(cached.getList()), cached.getNextCursor());
 
-        Map<Long, User> usersById = new HashMap<>();
-        if (!userIds.isEmpty()) {
-            for (User u : userMapper.selectBatchIds(userIds)) {
-                usersById.put(u.getId(), u);
-            }
+        LambdaQueryWrapper<CommunityPost> qw = new LambdaQueryWrapper<>();
+        if (after != null) {
+            qw.and(w -> w.lt(CommunityPost::getCreateTime, after.time())
+                    .or(o -> o.eq(CommunityPost::getCreateTime, after.time()).lt(CommunityPost::getId, after.id())));
         }
-
-        LambdaQueryWrapper<CommunityPostImage> iqw = new LambdaQueryWrapper<>();
-        iqw.in(CommunityPostImage::getPostId, postIds).orderByAsc(CommunityPostImage::getId);
-        List<CommunityPostImage> images = imageMapper.selectList(iqw);
-        Map<Long, List<String>> imagesByPostId = new HashMap<>();
-        for (CommunityPostImage img : images) {
-            imagesByPostId.computeIfAbsent(img.getPostId(), k -> new ArrayList<>()).add(img.getUrl());
+        qw.orderByDesc(CommunityPost::getCreateTime).orderByDesc(CommunityPost::getId);
+        // 多取一条用于判断是否还有下一页
+        qw.last("limit " + (size + 1));
+        List<CommunityPost> posts = postMapper.selectList(qw);
+        String nextCursor = null;
+        if (posts.size() > size) {
+            posts = posts.subList(0, size);
+            CommunityPost last = posts.get(size - 1);
+            nextCursor = new PageCursor(last.getCreateTime(), last.getId()).encode();
         }
+        return CursorPageVO.of(buildPostVOs(posts), nextCursor);
+    }
 
-        List<CommunityPostVO> result = new ArrayList<>();
-        for (CommunityPost p : posts) {
-            User author = usersById.get(p.getUserId());
-            result.add(toPostVO(p, author, imagesByPostId.getOrDefault(p.getId(), Collections.emptyList())));
-        }
-        return result;
+    private List<CommunityPostVO> loadFeedHead(int limit) {
+        LambdaQueryWrapper<CommunityPost> qw = new LambdaQueryWrapper<>();
+        qw.orderByDesc(CommunityPost::getCreateTime).orderByDesc(CommunityPost::getId);
+        qw.last("limit " + limit);
+        return buildPostVOs(postMapper.selectList(qw));
     }
 
     @Override
@@ -119,51 +162,80 @@ public class CommunityServiceImpl implements CommunityService {
         if (!post.getUserId().equals(userId)) {
             throw new RuntimeException("无权限删除该动态");
         }
+        List<String> imageUrls = listImageUrls(postId);
         postMapper.deleteById(postId);
+        feedCache.onPostDeleted(postId);
+        searchIndexService.onPostDeleted(postId);
+        imageUrls.forEach(mediaStorageService::release);
     }
 
     @Override
+    @Deprecated
     public List<CommunityCommentVO> listComments(Long userId, Long postId) {
+        // 旧接口不再返回全部评论，只给第一页，避免热门动态一次读出全部评论
+        return listCommentPage(userId, postId, null, commentPageMaxSize).getList();
+    }
+
+    @Override
+    public CursorPageVO<CommunityCommentVO> listCommentPage(Long userId, Long postId, String cursor, int size) {
         ensureUserId(userId);
-        CommunityPost post = postMapper.selectById(postId);
-        if (post == null) throw new RuntimeException("动态不存在");
+        if (size < 1) size = 20;
+        if (size > commentPageMaxSize) size = commentPageMaxSize;
+        PageCursor after = PageCursor.decode(cursor);
+        if (after == null && postMapper.selectById(postId) == null) throw new RuntimeException("动态不存在");
 
         LambdaQueryWrapper<CommunityComment> qw = new LambdaQueryWrapper<>();
-        qw.eq(CommunityComment::getPostId, postId).orderByAsc(CommunityComment::getCreateTime);
+        qw.eq(CommunityComment::getPostId, postId);
+        if (after != null) {
+            qw.and(w -> w.gt(CommunityComment::getCreateTime, after.time())
+                    .or(o -> o.eq(CommunityComment::getCreateTime, after.time()).gt(CommunityComment::getId, after.id())));
+        }
+        qw.orderByAsc(CommunityComment::getCreateTime).orderByAsc(CommunityComment::getId);
+        qw.last("limit " + (size + 1));
         List<CommunityComment> list = commentMapper.selectList(qw);
-        if (list.isEmpty()) return Collections.emptyList();
+        String nextCursor = null;
+        if (list.size() > size) {
+            list = list.subList(0, size);
+            CommunityComment last = list.get(size - 1);
+            nextCursor = new PageCursor(last.getCreateTime(), last.getId()).encode();
+        }
+        if (list.isEmpty()) return CursorPageVO.of(Collections.emptyList(), null);
 
         Set<Long> userIds = new HashSet<>();
         for (CommunityComment c : list) userIds.add(c.getUserId());
-        Map<Long, User> usersById = new HashMap<>();
-        for (User u : userMapper.selectBatchIds(userIds)) usersById.put(u.getId(), u);
-
+        Map<Long, CommunityUserVO> usersById = userSummaryCache.getAll(userIds);
         List<CommunityCommentVO> result = new ArrayList<>();
         for (CommunityComment c : list) {
             result.add(toCommentVO(c, usersById.get(c.getUserId())));
         }
-        return result;
+        return CursorPageVO.of(result, nextCursor);
     }
 
     @Override
+    @Transactional
     public CommunityCommentVO createComment(Long userId, Long postId, CommunityCommentCreateDTO dto) {
-        User user = getActiveUser(userId);
+        authService.requireUser(userId);
         CommunityPost post = postMapper.selectById(postId);
         if (post == null) throw new RuntimeException("动态不存在");
         if (dto == null || dto.getContent() == null || dto.getContent().isBlank()) {
             throw new RuntimeException("评论内容不能为空");
         }
+        LocalDateTime now = LocalDateTime.now().withNano(0);
         CommunityComment comment = new CommunityComment();
         comment.setPostId(postId);
         comment.setUserId(userId);
         comment.setContent(dto.getContent().trim());
-        comment.setCreateTime(LocalDateTime.now());
-        comment.setUpdateTime(LocalDateTime.now());
+        comment.setCreateTime(now);
+        comment.setUpdateTime(now);
         commentMapper.insert(comment);
-        return toCommentVO(comment, user);
+        postMapper.addCommentCount(postId, 1);
+        feedCache.onCommentCountChanged(postId, 1);
+        searchIndexService.onCommentCreated(comment);
+        return toCommentVO(comment, userSummaryCache.get(userId));
     }
 
     @Override
+    @Transactional
     public void deleteComment(Long userId, Long postId, Long commentId) {
         ensureUserId(userId);
         CommunityComment comment = commentMapper.selectById(commentId);
@@ -173,73 +245,98 @@ public class CommunityServiceImpl implements CommunityService {
         if (!comment.getUserId().equals(userId)) {
             throw new RuntimeException("无权限删除该评论");
         }
-        commentMapper.deleteById(commentId);
+        if (commentMapper.deleteById(commentId) > 0) {
+            postMapper.addCommentCount(postId, -1);
+            feedCache.onCommentCountChanged(postId, -1);
+            searchIndexService.onCommentDeleted(commentId);
+        }
     }
 
-    private String saveImage(MultipartFile file, String dirName) {
-        String contentType = file.getContentType();
-        Set<String> allowedTypes = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
-        if (contentType == null || !allowedTypes.contains(contentType)) {
-            throw new RuntimeException("仅支持上传 jpg/png/gif/webp 图片");
+    private List<CommunityPostVO> buildPostVOs(List<CommunityPost> posts) {
+        if (posts.isEmpty()) return Collections.emptyList();
+
+        Set<Long> userIds = new HashSet<>();
+        List<Long> postIds = new ArrayList<>();
+        for (CommunityPost p : posts) {
+            userIds.add(p.getUserId());
+            postIds.add(p.getId());
         }
-        String extension = switch (contentType) {
-            case "image/jpeg" -> ".jpg";
-            case "image/png" -> ".png";
-            case "image/gif" -> ".gif";
-            case "image/webp" -> ".webp";
-            default -> "";
-        };
-        String filename = UUID.randomUUID() + extension;
-        Path imgDir = Paths.get(uploadDir, "community_images", dirName);
-        try {
-            Files.createDirectories(imgDir);
-            Path target = imgDir.resolve(filename).normalize();
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new RuntimeException("图片上传失败");
+
+        Map<Long, CommunityUserVO> usersById = userSummaryCache.getAll(userIds);
+
+        LambdaQueryWrapper<CommunityPostImage> iqw = new LambdaQueryWrapper<>();
+        iqw.in(CommunityPostImage::getPostId, postIds).orderByAsc(CommunityPostImage::getId);
+        List<CommunityPostImage> images = imageMapper.selectList(iqw);
+        Map<Long, List<String>> imagesByPostId = new HashMap<>();
+        for (CommunityPostImage img : images) {
+            imagesByPostId.computeIfAbsent(img.getPostId(), k -> new ArrayList<>()).add(img.getUrl());
         }
-        return "/uploads/community_images/" + dirName + "/" + filename;
+
+        List<CommunityPostVO> result = new ArrayList<>();
+        for (CommunityPost p : posts) {
+            result.add(toPostVO(p, usersById.get(p.getUserId()), imagesByPostId.getOrDefault(p.getId(), Collections.emptyList())));
+        }
+        return result;
     }
 
-    private User getActiveUser(Long userId) {
-        ensureUserId(userId);
-        User user = userMapper.selectById(userId);
-        if (user == null) throw new RuntimeException("用户不存在");
-        if (user.getStatus() != null && user.getStatus() == 1) throw new RuntimeException("账号已被封禁");
-        return user;
+    /**
+     * 缓存中的动态作者信息可能已过期，按用户摘要缓存重新填充（返回副本，不修改缓存对象）；
+     * 作者为空或查不到当前摘要时保留缓存中的原值
+     */
+    private List<CommunityPostVO> withCurrentAuthors(List<CommunityPostVO> posts) {
+        if (posts.isEmpty()) return posts;
+        Set<Long> userIds = new HashSet<>();
+        for (CommunityPostVO p : posts) {
+            if (p.getAuthor() != null && p.getAuthor().getId() != null) userIds.add(p.getAuthor().getId());
+        }
+        Map<Long, CommunityUserVO> usersById = userSummaryCache.getAll(userIds);
+        List<CommunityPostVO> result = new ArrayList<>(posts.size());
+        for (CommunityPostVO p : posts) {
+            CommunityPostVO vo = new CommunityPostVO();
+            vo.setId(p.getId());
+            vo.setContent(p.getContent());
+            vo.setImages(p.getImages());
+            vo.setThumbnails(p.getThumbnails());
+            CommunityUserVO author = p.getAuthor() == null ? null : usersById.get(p.getAuthor().getId());
+            vo.setAuthor(author != null ? author : p.getAuthor());
+            vo.setCommentCount(p.getCommentCount());
+            vo.setImageCount(p.getImageCount());
+            vo.setCreateTime(p.getCreateTime());
+            result.add(vo);
+        }
+        return result;
+    }
+
+    private List<String> listImageUrls(Long postId) {
+        LambdaQueryWrapper<CommunityPostImage> qw = new LambdaQueryWrapper<>();
+        qw.select(CommunityPostImage::getUrl).eq(CommunityPostImage::getPostId, postId);
+        return imageMapper.selectList(qw).stream().map(CommunityPostImage::getUrl).toList();
     }
 
     private void ensureUserId(Long userId) {
         if (userId == null) throw new RuntimeException("未登录");
     }
 
-    private CommunityPostVO toPostVO(CommunityPost post, User author, List<String> images) {
+    private CommunityPostVO toPostVO(CommunityPost post, CommunityUserVO author, List<String> images) {
         CommunityPostVO vo = new CommunityPostVO();
         vo.setId(post.getId());
         vo.setContent(post.getContent());
         vo.setImages(images == null ? Collections.emptyList() : images);
-        vo.setAuthor(toUserVO(author == null ? post.getUserId() : author.getId(), author));
+        vo.setThumbnails(ImageVariants.urls(vo.getImages(), ImageVariants.MEDIUM));
+        vo.setAuthor(author);
+        vo.setCommentCount(post.getCommentCount() == null ? 0 : post.getCommentCount());
+        vo.setImageCount(post.getImageCount() == null ? vo.getImages().size() : post.getImageCount());
         vo.setCreateTime(post.getCreateTime());
         return vo;
     }
 
-    private CommunityCommentVO toCommentVO(CommunityComment comment, User author) {
+    private CommunityCommentVO toCommentVO(CommunityComment comment, CommunityUserVO author) {
         CommunityCommentVO vo = new CommunityCommentVO();
         vo.setId(comment.getId());
         vo.setContent(comment.getContent());
-        vo.setAuthor(toUserVO(author == null ? comment.getUserId() : author.getId(), author));
+        vo.setAuthor(author);
         vo.setCreateTime(comment.getCreateTime());
         return vo;
     }
-
-    private CommunityUserVO toUserVO(Long userId, User user) {
-        CommunityUserVO vo = new CommunityUserVO();
-        vo.setId(userId);
-        if (user != null) {
-            vo.setNickname(user.getNickname());
-            vo.setAvatar(user.getAvatar());
-        }
-        return vo;
-    }
 }
 
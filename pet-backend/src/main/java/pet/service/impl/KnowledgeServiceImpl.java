@@ -1,88 +1,176 @@
 package pet.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import pet.cache.KnowledgeArticleCache;
+import pet.cache.KnowledgeCatalogCache;
+import pet.common.FullTextQuery;
 import pet.entity.KnowledgeArticle;
-import pet.entity.KnowledgeCategory;
 import pet.mapper.KnowledgeArticleMapper;
-import pet.mapper.KnowledgeCategoryMapper;
+import pet.search.InvertedIndex;
+import pet.search.SearchHits;
+import pet.search.SearchIndexService;
 import pet.service.KnowledgeService;
 import pet.vo.KnowledgeArticleVO;
 import pet.vo.KnowledgeCategoryVO;
+import pet.vo.PageVO;
 
-import java.util.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class KnowledgeServiceImpl implements KnowledgeService {
 
-    private final KnowledgeCategoryMapper categoryMapper;
     private final KnowledgeArticleMapper articleMapper;
+    private final SearchIndexService searchIndexService;
+    private final KnowledgeCatalogCache catalogCache;
+    private final KnowledgeArticleCache articleCache;
+
+    /**
+     * 搜索摘要：首个关键词前保留的字符数与摘要总长度
+     */
+    private static final int SNIPPET_LEAD = 30;
+    private static final int SNIPPET_LENGTH = 120;
 
     @Override
     public List<KnowledgeCategoryVO> listCategories() {
-        LambdaQueryWrapper<KnowledgeCategory> qw = new LambdaQueryWrapper<>();
-        qw.orderByDesc(KnowledgeCategory::getSort).orderByAsc(KnowledgeCategory::getId);
-        List<KnowledgeCategory> list = categoryMapper.selectList(qw);
-        List<KnowledgeCategoryVO> result = new ArrayList<>();
-        for (KnowledgeCategory c : list) {
-            KnowledgeCategoryVO vo = new KnowledgeCategoryVO();
-            vo.setId(c.getId());
-            vo.setName(c.getName());
-            vo.setSort(c.getSort());
-            result.add(vo);
-        }
-        return result;
+        return catalogCache.categories();
     }
 
     @Override
     public List<KnowledgeArticleVO> listArticles(Long categoryId, String keyword) {
-        LambdaQueryWrapper<KnowledgeArticle> qw = new LambdaQueryWrapper<>();
-        if (categoryId != null) {
-            qw.eq(KnowledgeArticle::getCategoryId, categoryId);
-        }
-        if (keyword != null && !keyword.isBlank()) {
-            String k = keyword.trim();
-            qw.and(w -> w.like(KnowledgeArticle::getTitle, k).or().like(KnowledgeArticle::getContent, k));
-        }
-        qw.orderByDesc(KnowledgeArticle::getCreateTime);
-        List<KnowledgeArticle> list = articleMapper.selectList(qw);
-        if (list.isEmpty()) return Collections.emptyList();
-
-        Set<Long> categoryIds = new HashSet<>();
-        for (KnowledgeArticle a : list) categoryIds.add(a.getCategoryId());
-        Map<Long, KnowledgeCategory> categoryById = new HashMap<>();
-        if (!categoryIds.isEmpty()) {
-            for (KnowledgeCategory c : categoryMapper.selectBatchIds(categoryIds)) {
-                categoryById.put(c.getId(), c);
-            }
-        }
+        FullTextQuery query = FullTextQuery.parse(keyword);
+        // 无关键词时直接返回目录快照
+        if (query == null) return catalogCache.articles(categoryId);
+
+        // 有关键词时优先走站内索引（按 BM25 相关度排序），命中结果从快照中取摘要；索引未就绪时回退到 FULLTEXT 查询
+        SearchHits hits = searchIndexService.searchArticles(keyword, categoryId, InvertedIndex.Order.RELEVANCE, 0, Integer.MAX_VALUE);
+        if (hits != null) return catalogCache.articlesByIds(hits.ids());
 
         List<KnowledgeArticleVO> result = new ArrayList<>();
-        for (KnowledgeArticle a : list) {
-            KnowledgeCategory c = categoryById.get(a.getCategoryId());
-            KnowledgeArticleVO vo = toArticleVO(a, c, false);
-            result.add(vo);
+        for (KnowledgeArticle a : articleMapper.selectList(fullTextQuery(categoryId, query))) {
+            result.add(toArticleVO(a, false));
         }
         return result;
     }
 
+    @Override
+    public PageVO<KnowledgeArticleVO> pageArticles(Long categoryId, String keyword, int page, int size) {
+        if (page < 1) page = 1;
+        if (size < 1) size = 10;
+        if (size > 50) size = 50;
+        int offset = (int) Math.min((long) (page - 1) * size, Integer.MAX_VALUE);
+        FullTextQuery query = FullTextQuery.parse(keyword);
+        if (query == null) {
+            List<KnowledgeArticleVO> all = catalogCache.articles(categoryId);
+            int from = Math.min(offset, all.size());
+            int to = Math.min(from + size, all.size());
+            return PageVO.of(all.size(), all.subList(from, to));
+        }
+
+        SearchHits hits = searchIndexService.searchArticles(keyword, categoryId, InvertedIndex.Order.RELEVANCE, offset, size);
+        if (hits != null) return PageVO.of(hits.total(), catalogCache.articlesByIds(hits.ids()));
+
+        Page<KnowledgeArticle> result = articleMapper.selectPage(new Page<>(page, size), fullTextQuery(categoryId, query));
+        List<KnowledgeArticleVO> list = new ArrayList<>();
+        for (KnowledgeArticle a : result.getRecords()) {
+            list.add(toArticleVO(a, false));
+        }
+        return PageVO.of(result.getTotal(), list);
+    }
+
     @Override
     public KnowledgeArticleVO getArticle(Long id) {
         KnowledgeArticle a = articleMapper.selectById(id);
         if (a == null) {
             throw new RuntimeException("文章不存在");
         }
-        KnowledgeCategory c = categoryMapper.selectById(a.getCategoryId());
-        return toArticleVO(a, c, true);
+        return toArticleVO(a, true);
+    }
+
+    @Override
+    public KnowledgeArticleCache.Rendered getRenderedArticle(Long id) {
+        LocalDateTime version = articleMapper.selectDetailVersion(id);
+        if (version == null) {
+            throw new RuntimeException("文章不存在");
+        }
+        return articleCache.get(id, version, this::getArticle);
+    }
+
+    @Override
+    public PageVO<KnowledgeArticleVO> searchArticles(Long categoryId, String keyword, int page, int size) {
+        FullTextQuery query = FullTextQuery.parse(keyword);
+        if (query == null) throw new RuntimeException("请输入搜索关键词");
+        if (page < 1) page = 1;
+        if (size < 1) size = 10;
+        if (size > 50) size = 50;
+        int offset = (int) Math.min((long) (page - 1) * size, Integer.MAX_VALUE);
+
+        // 与 listArticles、pageArticles 走同一个站内索引，命中结果再按ID截取正文摘要
+        SearchHits hits = searchIndexService.searchArticles(keyword, categoryId, InvertedIndex.Order.RELEVANCE, offset, size);
+        if (hits != null) return PageVO.of(hits.total(), withHighlights(catalogCache.articlesByIds(hits.ids()), query));
+
+        IPage<KnowledgeArticleVO> result = articleMapper.searchFullText(new Page<>(page, size), categoryId,
+                query.booleanQuery(), query.naturalQuery(), query.anchor(), SNIPPET_LEAD, SNIPPET_LENGTH);
+        List<KnowledgeArticleVO> list = result.getRecords();
+        for (KnowledgeArticleVO vo : list) {
+            vo.setCategoryName(catalogCache.categoryName(vo.getCategoryId()));
+            vo.setHighlight(query.highlight(vo.getHighlight()));
+        }
+        return PageVO.of(result.getTotal(), list);
+    }
+
+    /**
+     * 复制快照中的文章摘要并填充命中摘要（快照对象是共享的，不能直接修改）
+     */
+    private List<KnowledgeArticleVO> withHighlights(List<KnowledgeArticleVO> articles, FullTextQuery query) {
+        if (articles.isEmpty()) return articles;
+        Map<Long, String> snippets = new HashMap<>();
+        for (KnowledgeArticleVO s : articleMapper.selectSnippets(articles.stream().map(KnowledgeArticleVO::getId).toList(),
+                query.anchor(), SNIPPET_LEAD, SNIPPET_LENGTH)) {
+            snippets.put(s.getId(), s.getHighlight());
+        }
+        List<KnowledgeArticleVO> result = new ArrayList<>(articles.size());
+        for (KnowledgeArticleVO a : articles) {
+            KnowledgeArticleVO vo = new KnowledgeArticleVO();
+            vo.setId(a.getId());
+            vo.setCategoryId(a.getCategoryId());
+            vo.setCategoryName(a.getCategoryName());
+            vo.setTitle(a.getTitle());
+            vo.setSummary(a.getSummary());
+            vo.setCover(a.getCover());
+            vo.setCreateTime(a.getCreateTime());
+            vo.setHighlight(query.highlight(snippets.get(a.getId())));
+            result.add(vo);
+        }
+        return result;
+    }
+
+    /**
+     * FULLTEXT 回退查询（站内索引未就绪时），只取列表列
+     */
+    private LambdaQueryWrapper<KnowledgeArticle> fullTextQuery(Long categoryId, FullTextQuery query) {
+        LambdaQueryWrapper<KnowledgeArticle> qw = KnowledgeArticleMapper.listQuery();
+        if (categoryId != null) {
+            qw.eq(KnowledgeArticle::getCategoryId, categoryId);
+        }
+        qw.apply("MATCH(title, content) AGAINST({0} IN BOOLEAN MODE)", query.booleanQuery());
+        qw.orderByDesc(KnowledgeArticle::getCreateTime).orderByDesc(KnowledgeArticle::getId);
+        return qw;
     }
 
-    private KnowledgeArticleVO toArticleVO(KnowledgeArticle a, KnowledgeCategory c, boolean withContent) {
+    private KnowledgeArticleVO toArticleVO(KnowledgeArticle a, boolean withContent) {
         KnowledgeArticleVO vo = new KnowledgeArticleVO();
         vo.setId(a.getId());
         vo.setCategoryId(a.getCategoryId());
-        vo.setCategoryName(c == null ? null : c.getName());
+        vo.setCategoryName(catalogCache.categoryName(a.getCategoryId()));
         vo.setTitle(a.getTitle());
         vo.setSummary(a.getSummary());
         vo.setCover(a.getCover());
@@ -0,0 +1,166 @@
+package pet.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import pet.entity.MediaFile;
+import pet.mapper.MediaFileMapper;
+import pet.service.MediaStorageService;
+import pet.upload.ImageVariantService;
+import pet.upload.ImageVariants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Slf4j
+@Service
+public class MediaStorageServiceImpl implements MediaStorageService {
+
+    private static final Set<String> ALLOWED_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+    private static final String URL_PREFIX = "/uploads/media/";
+    private static final int PURGE_BATCH = 200;
+
+    private final MediaFileMapper mediaFileMapper;
+    private final ImageVariantService imageVariantService;
+    private final Path mediaDir;
+    private final Path tmpDir;
+
+    /**
+     * 按文件分段加锁，保证同一文件的登记引用与清理互斥
+     */
+    private final Object[] locks = new Object[64];
+
+    public MediaStorageServiceImpl(MediaFileMapper mediaFileMapper,
+                                   ImageVariantService imageVariantService,
+                                   @Value("${app.upload-dir:uploads}") String uploadDir) {
+        this.mediaFileMapper = mediaFileMapper;
+        this.imageVariantService = imageVariantService;
+        this.mediaDir = Paths.get(uploadDir, "media").toAbsolutePath().normalize();
+        this.tmpDir = mediaDir.resolve("tmp");
+        for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+    }
+
+    @Override
+    public void checkImage(MultipartFile file) {
+        String contentType = file.getContentType();
+        if (contentType == null || !ALLOWED_TYPES.contains(contentType)) {
+            throw new RuntimeException("仅支持上传 jpg/png/gif/webp 图片");
+        }
+    }
+
+    @Override
+    public String storeImage(MultipartFile file) {
+        checkImage(file);
+        String contentType = file.getContentType();
+        String extension = switch (contentType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            default -> "";
+        };
+
+        Path tmp = null;
+        try {
+            Files.createDirectories(tmpDir);
+            tmp = tmpDir.resolve(UUID.randomUUID() + ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            // 写盘的同时计算摘要，只读一遍数据
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.CREATE_NEW)) {
+                size = in.transferTo(out);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String relative = sha256.substring(0, 2) + "/" + sha256 + extension;
+            String url = URL_PREFIX + relative;
+            Path target = mediaDir.resolve(relative);
+
+            synchronized (lockFor(url)) {
+                mediaFileMapper.addReference(sha256, url, size, contentType);
+                if (Files.exists(target)) {
+                    Files.delete(tmp);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            tmp = null;
+            return url;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.error("图片保存失败: {}", e.getMessage(), e);
+            throw new RuntimeException("图片上传失败");
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // 临时文件残留不影响业务
+                }
+            }
+        }
+    }
+
+    @Override
+    public void retain(String url) {
+        if (!isManaged(url)) return;
+        synchronized (lockFor(url)) {
+            mediaFileMapper.retainByUrl(url);
+        }
+    }
+
+    @Override
+    public void release(String url) {
+        if (!isManaged(url)) return;
+        mediaFileMapper.releaseByUrl(url);
+    }
+
+    @Override
+    public int purgeOrphans() {
+        int deleted = 0;
+        long lastId = 0;
+        while (true) {
+            LambdaQueryWrapper<MediaFile> qw = new LambdaQueryWrapper<>();
+            qw.select(MediaFile::getId, MediaFile::getUrl)
+                    .eq(MediaFile::getRefCount, 0)
+                    .gt(MediaFile::getId, lastId)
+                    .orderByAsc(MediaFile::getId)
+                    .last("limit " + PURGE_BATCH);
+            List<MediaFile> orphans = mediaFileMapper.selectList(qw);
+            for (MediaFile f : orphans) {
+                synchronized (lockFor(f.getUrl())) {
+                    if (mediaFileMapper.deleteIfOrphan(f.getId()) == 0) continue;
+                    try {
+                        Files.deleteIfExists(mediaDir.resolve(f.getUrl().substring(URL_PREFIX.length())).normalize());
+                        imageVariantService.evict(f.getUrl().substring(ImageVariants.UPLOAD_PREFIX.length()));
+                        deleted++;
+                    } catch (IOException e) {
+                        log.warn("删除无引用文件失败: {}", f.getUrl(), e);
+                    }
+                }
+            }
+            if (orphans.size() < PURGE_BATCH) break;
+            lastId = orphans.get(orphans.size() - 1).getId();
+        }
+        return deleted;
+    }
+
+    private boolean isManaged(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    private Object lockFor(String url) {
+        return locks[Math.floorMod(url.hashCode(), locks.length)];
+    }
+}
@@ -0,0 +1,158 @@
+package pet.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pet.common.PageCursor;
+import pet.entity.Pet;
+import pet.entity.PetReminder;
+import pet.entity.UserNotification;
+import pet.mapper.PetMapper;
+import pet.mapper.PetReminderMapper;
+import pet.mapper.UserNotificationMapper;
+import pet.service.NotificationService;
+import pet.vo.CursorPageVO;
+import pet.vo.NotificationVO;
+import pet.vo.ReminderVO;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationServiceImpl implements NotificationService {
+
+    private static final int UPCOMING_LIMIT = 100;
+
+    private final UserNotificationMapper notificationMapper;
+    private final PetReminderMapper reminderMapper;
+    private final PetMapper petMapper;
+
+    @Override
+    public CursorPageVO<NotificationVO> listNotifications(Long userId, String cursor, int size) {
+        ensureUserId(userId);
+        if (size < 1) size = 20;
+        if (size > 50) size = 50;
+        PageCursor after = PageCursor.decode(cursor);
+
+        LambdaQueryWrapper<UserNotification> qw = new LambdaQueryWrapper<>();
+        qw.eq(UserNotification::getUserId, userId);
+        if (after != null) {
+            qw.and(w -> w.lt(UserNotification::getCreateTime, after.time())
+                    .or(o -> o.eq(UserNotification::getCreateTime, after.time()).lt(UserNotification::getId, after.id())));
+        }
+        qw.orderByDesc(UserNotification::getCreateTime).orderByDesc(UserNotification::getId);
+        qw.last("limit " + (size + 1));
+        List<UserNotification> list = notificationMapper.selectList(qw);
+        String nextCursor = null;
+        if (list.size() > size) {
+            list = list.subList(0, size);
+            UserNotification last = list.get(size - 1);
+            nextCursor = new PageCursor(last.getCreateTime(), last.getId()).encode();
+        }
+        List<NotificationVO> vos = new ArrayList<>();
+        for (UserNotification n : list) {
+            vos.add(toVO(n));
+        }
+        return CursorPageVO.of(vos, nextCursor);
+    }
+
+    @Override
+    public long countUnread(Long userId) {
+        ensureUserId(userId);
+        LambdaQueryWrapper<UserNotification> qw = new LambdaQueryWrapper<>();
+        qw.eq(UserNotification::getUserId, userId).eq(UserNotification::getIsRead, 0);
+        return notificationMapper.selectCount(qw);
+    }
+
+    @Override
+    public void markRead(Long userId, Long notificationId) {
+        ensureUserId(userId);
+        LambdaUpdateWrapper<UserNotification> uw = new LambdaUpdateWrapper<>();
+        uw.eq(UserNotification::getId, notificationId)
+                .eq(UserNotification::getUserId, userId)
+                .set(UserNotification::getIsRead, 1);
+        if (notificationMapper.update(null, uw) == 0) {
+            throw new RuntimeException("通知不存在或无权限");
+        }
+    }
+
+    @Override
+    public void markAllRead(Long userId) {
+        ensureUserId(userId);
+        LambdaUpdateWrapper<UserNotification> uw = new LambdaUpdateWrapper<>();
+        uw.eq(UserNotification::getUserId, userId)
+                .eq(UserNotification::getIsRead, 0)
+                .set(UserNotification::getIsRead, 1);
+        notificationMapper.update(null, uw);
+    }
+
+    @Override
+    public List<ReminderVO> listUpcomingReminders(Long userId) {
+        ensureUserId(userId);
+        LambdaQueryWrapper<PetReminder> qw = new LambdaQueryWrapper<>();
+        qw.eq(PetReminder::getUserId, userId)
+                .eq(PetReminder::getStatus, PetReminder.STATUS_PENDING)
+                .orderByAsc(PetReminder::getDueTime)
+                .last("limit " + UPCOMING_LIMIT);
+        List<PetReminder> reminders = reminderMapper.selectList(qw);
+        if (reminders.isEmpty()) return Collections.emptyList();
+
+        Set<Long> petIds = new HashSet<>();
+        for (PetReminder r : reminders) petIds.add(r.getPetId());
+        LambdaQueryWrapper<Pet> pq = new LambdaQueryWrapper<>();
+        pq.select(Pet::getId, Pet::getName).in(Pet::getId, petIds);
+        Map<Long, String> petNames = new HashMap<>();
+        for (Pet p : petMapper.selectList(pq)) petNames.put(p.getId(), p.getName());
+
+        List<ReminderVO> vos = new ArrayList<>();
+        for (PetReminder r : reminders) {
+            ReminderVO vo = new ReminderVO();
+            vo.setId(r.getId());
+            vo.setPetId(r.getPetId());
+            vo.setPetName(petNames.get(r.getPetId()));
+            vo.setRecordId(r.getRecordId());
+            vo.setType(r.getType());
+            vo.setTitle(r.getTitle());
+            vo.setDueTime(r.getDueTime());
+            vo.setRemindTime(r.getRemindTime());
+            vos.add(vo);
+        }
+        return vos;
+    }
+
+    @Override
+    @Transactional
+    public boolean deliverReminder(PetReminder reminder, String title, String content) {
+        if (reminderMapper.markFired(reminder.getId()) == 0) return false;
+        UserNotification n = new UserNotification();
+        n.setUserId(reminder.getUserId());
+        n.setPetId(reminder.getPetId());
+        n.setReminderId(reminder.getId());
+        n.setTitle(title);
+        n.setContent(content);
+        n.setIsRead(0);
+        n.setCreateTime(LocalDateTime.now());
+        notificationMapper.insert(n);
+        return true;
+    }
+
+    private void ensureUserId(Long userId) {
+        if (userId == null) {
+            throw new RuntimeException("未登录");
+        }
+    }
+
+    private NotificationVO toVO(UserNotification n) {
+        NotificationVO vo = new NotificationVO();
+        vo.setId(n.getId());
+        vo.setPetId(n.getPetId());
+        vo.setTitle(n.getTitle());
+        vo.setContent(n.getContent());
+        vo.setRead(n.getIsRead() != null && n.getIsRead() == 1);
+        vo.setCreateTime(n.getCreateTime());
+        return vo;
+    }
+}
@@ -2,28 +2,35 @@ package pet.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import pet.cache.PetOverviewCache;
+import pet.common.PageCursor;
 import pet.dto.*;
 import pet.entity.HealthRecord;
 import pet.entity.Pet;
+import pet.export.HealthRecordExporter;
+import pet.export.HealthRecordImporter;
 import pet.mapper.HealthRecordMapper;
 import pet.mapper.PetMapper;
+import pet.reminder.ReminderScheduler;
+import pet.service.MediaStorageService;
 import pet.service.PetService;
+import pet.upload.ImageVariants;
+import pet.vo.CursorPageVO;
+import pet.vo.HealthRecordImportVO;
 import pet.vo.HealthRecordVO;
+import pet.vo.PetOverviewVO;
 import pet.vo.PetVO;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.UUID;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -31,9 +38,11 @@ public class PetServiceImpl implements PetService {
 
     private final PetMapper petMapper;
     private final HealthRecordMapper healthRecordMapper;
-
-    @Value("${app.upload-dir:uploads}")
-    private String uploadDir;
+    private final MediaStorageService mediaStorageService;
+    private final ReminderScheduler reminderScheduler;
+    private final PetOverviewCache petOverviewCache;
+    private final HealthRecordImporter healthRecordImporter;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public List<PetVO> listMyPets(Long userId) {
@@ -48,6 +57,12 @@ public class PetServiceImpl implements PetService {
         return vos;
     }
 
+    @Override
+    public List<PetOverviewVO> listPetOverview(Long userId) {
+        ensureUserId(userId);
+        return petOverviewCache.get(userId);
+    }
+
     @Override
     public PetVO createPet(Long userId, PetCreateDTO dto) {
         ensureUserId(userId);
@@ -63,6 +78,7 @@ public class PetServiceImpl implements PetService {
         pet.setCreateTime(LocalDateTime.now());
         pet.setUpdateTime(LocalDateTime.now());
         petMapper.insert(pet);
+        petOverviewCache.evict(userId);
         return toVO(pet);
     }
 
@@ -79,9 +95,15 @@ public class PetServiceImpl implements PetService {
         if (dto.getBreed() != null) pet.setBreed(dto.getBreed());
         if (dto.getGender() != null) pet.setGender(dto.getGender());
         if (dto.getBirthday() != null) pet.setBirthday(dto.getBirthday());
+        String oldPhoto = pet.getPhoto();
         if (dto.getPhoto() != null) pet.setPhoto(dto.getPhoto());
         pet.setUpdateTime(LocalDateTime.now());
         petMapper.updateById(pet);
+        petOverviewCache.evict(userId);
+        if (!Objects.equals(oldPhoto, pet.getPhoto())) {
+            mediaStorageService.retain(pet.getPhoto());
+            mediaStorageService.release(oldPhoto);
+        }
         return toVO(pet);
     }
 
@@ -89,6 +111,8 @@ public class PetServiceImpl implements PetService {
     public void deletePet(Long userId, Long petId) {
         Pet pet = getOwnedPet(userId, petId);
         petMapper.deleteById(pet.getId());
+        petOverviewCache.evict(userId);
+        mediaStorageService.release(pet.getPhoto());
     }
 
     @Override
@@ -97,30 +121,12 @@ public class PetServiceImpl implements PetService {
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("请选择宠物照片文件");
         }
-        String contentType = file.getContentType();
-        Set<String> allowedTypes = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
-        if (contentType == null || !allowedTypes.contains(contentType)) {
-            throw new RuntimeException("仅支持上传 jpg/png/gif/webp 图片");
-        }
-        String extension = switch (contentType) {
-            case "image/jpeg" -> ".jpg";
-            case "image/png" -> ".png";
-            case "image/gif" -> ".gif";
-            case "image/webp" -> ".webp";
-            default -> "";
-        };
-        String filename = UUID.randomUUID() + extension;
-        Path photoDir = Paths.get(uploadDir, "pet_photos");
-        try {
-            Files.createDirectories(photoDir);
-            Path target = photoDir.resolve(filename).normalize();
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new RuntimeException("照片上传失败");
-        }
-        pet.setPhoto("/uploads/pet_photos/" + filename);
+        String oldPhoto = pet.getPhoto();
+        pet.setPhoto(mediaStorageService.storeImage(file));
         pet.setUpdateTime(LocalDateTime.now());
         petMapper.updateById(pet);
+        petOverviewCache.evict(userId);
+        mediaStorageService.release(oldPhoto);
         return toVO(pet);
     }
 
@@ -137,6 +143,75 @@ public class PetServiceImpl implements PetService {
         return vos;
     }
 
+    @Override
+    public List<HealthRecordVO> listHealthRecordsInRange(Long userId, Long petId, LocalDateTime from, LocalDateTime to) {
+        Pet pet = getOwnedPet(userId, petId);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("起始时间不能晚于截止时间");
+        }
+        LambdaQueryWrapper<HealthRecord> qw = HealthRecordMapper.timelineQuery(pet.getId());
+        qw.ge(from != null, HealthRecord::getRecordTime, from).le(to != null, HealthRecord::getRecordTime, to);
+        List<HealthRecordVO> vos = new ArrayList<>();
+        for (HealthRecord hr : healthRecordMapper.selectList(qw)) {
+            vos.add(toVO(hr));
+        }
+        return vos;
+    }
+
+    @Override
+    public CursorPageVO<HealthRecordVO> pageHealthRecords(Long userId, Long petId, String cursor, int size) {
+        Pet pet = getOwnedPet(userId, petId);
+        if (size < 1) size = 20;
+        if (size > 100) size = 100;
+        PageCursor after = PageCursor.decode(cursor);
+
+        LambdaQueryWrapper<HealthRecord> qw = HealthRecordMapper.timelineQuery(pet.getId());
+        if (after != null) {
+            qw.and(w -> w.lt(HealthRecord::getRecordTime, after.time())
+                    .or(o -> o.eq(HealthRecord::getRecordTime, after.time()).lt(HealthRecord::getId, after.id())));
+        }
+        // 多取一条用于判断是否还有下一页
+        qw.last("limit " + (size + 1));
+        List<HealthRecord> list = healthRecordMapper.selectList(qw);
+        String nextCursor = null;
+        if (list.size() > size) {
+            list = list.subList(0, size);
+            HealthRecord last = list.get(size - 1);
+            nextCursor = new PageCursor(last.getRecordTime(), last.getId()).encode();
+        }
+        List<HealthRecordVO> vos = new ArrayList<>();
+        for (HealthRecord hr : list) {
+            vos.add(toVO(hr));
+        }
+        return CursorPageVO.of(vos, nextCursor);
+    }
+
+    @Override
+    public HealthRecordExporter.Export exportHealthRecords(Long userId, Long petId, String format) {
+        Pet pet = getOwnedPet(userId, petId);
+        HealthRecordExporter.Format f = HealthRecordExporter.Format.parse(format);
+        String fileName = pet.getName() + "-健康记录." + f.extension();
+        return new HealthRecordExporter.Export(pet.getId(), f, fileName);
+    }
+
+    @Override
+    public HealthRecordImportVO importHealthRecords(Long userId, Long petId, HealthRecordImporter.Format format, InputStream in) {
+        Pet pet = getOwnedPet(userId, petId);
+        HealthRecordImporter.Result result;
+        try {
+            result = healthRecordImporter.importRecords(pet.getId(), format, in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取导入文件失败", e);
+        }
+        if (result.summary().getImported() > 0) {
+            petOverviewCache.evict(userId);
+            for (HealthRecord hr : result.latestByRule()) {
+                reminderScheduler.onRecordSaved(userId, hr, null);
+            }
+        }
+        return result.summary();
+    }
+
     @Override
     public HealthRecordVO createHealthRecord(Long userId, Long petId, HealthRecordCreateDTO dto) {
         Pet pet = getOwnedPet(userId, petId);
@@ -150,7 +225,11 @@ public class PetServiceImpl implements PetService {
         hr.setContent(dto.getContent());
         hr.setCreateTime(LocalDateTime.now());
         hr.setUpdateTime(LocalDateTime.now());
-        healthRecordMapper.insert(hr);
+        transactionTemplate.executeWithoutResult(status -> {
+            healthRecordMapper.insert(hr);
+            reminderScheduler.onRecordSaved(userId, hr, null);
+        });
+        petOverviewCache.evict(userId);
         return toVO(hr);
     }
 
@@ -161,6 +240,7 @@ public class PetServiceImpl implements PetService {
         if (hr == null || !hr.getPetId().equals(pet.getId())) {
             throw new RuntimeException("健康记录不存在或无权限");
         }
+        String previousTitle = hr.getTitle();
         if (dto.getRecordTime() != null) hr.setRecordTime(dto.getRecordTime());
         if (dto.getTitle() != null) {
             String t = dto.getTitle().trim();
@@ -169,7 +249,11 @@ public class PetServiceImpl implements PetService {
         }
         if (dto.getContent() != null) hr.setContent(dto.getContent());
         hr.setUpdateTime(LocalDateTime.now());
-        healthRecordMapper.updateById(hr);
+        transactionTemplate.executeWithoutResult(status -> {
+            healthRecordMapper.updateById(hr);
+            reminderScheduler.onRecordSaved(userId, hr, previousTitle);
+        });
+        petOverviewCache.evict(userId);
         return toVO(hr);
     }
 
@@ -180,7 +264,11 @@ public class PetServiceImpl implements PetService {
         if (hr == null || !hr.getPetId().equals(pet.getId())) {
             throw new RuntimeException("健康记录不存在或无权限");
         }
-        healthRecordMapper.deleteById(recordId);
+        transactionTemplate.executeWithoutResult(status -> {
+            reminderScheduler.beforeRecordDeleted(userId, hr);
+            healthRecordMapper.deleteById(recordId);
+        });
+        petOverviewCache.evict(userId);
     }
 
     private Pet getOwnedPet(Long userId, Long petId) {
@@ -206,6 +294,7 @@ public class PetServiceImpl implements PetService {
         vo.setGender(p.getGender());
         vo.setBirthday(p.getBirthday());
         vo.setPhoto(p.getPhoto());
+        vo.setPhotoThumbnail(ImageVariants.url(p.getPhoto(), ImageVariants.SMALL));
         return vo;
     }
 
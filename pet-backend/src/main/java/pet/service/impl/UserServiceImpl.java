@@ -1,29 +1,29 @@
 package pet.service.impl;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.util.Set;
-import java.util.UUID;
+import java.util.Locale;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 
 import lombok.RequiredArgsConstructor;
+import pet.cache.UserSummaryCache;
+import pet.common.AuthPrincipal;
 import pet.dto.LoginDTO;
 import pet.dto.RegisterDTO;
 import pet.dto.UpdatePasswordDTO;
 import pet.dto.UpdateProfileDTO;
 import pet.entity.User;
 import pet.mapper.UserMapper;
+import pet.security.PasswordHasher;
+import pet.security.TokenService;
+import pet.service.MediaStorageService;
 import pet.service.UserService;
+import pet.upload.ImageVariants;
 import pet.vo.UserVO;
 
 /**
@@ -34,9 +34,10 @@ import pet.vo.UserVO;
 public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper;
-
-    @Value("${app.upload-dir:uploads}")
-    private String uploadDir;
+    private final UserSummaryCache userSummaryCache;
+    private final MediaStorageService mediaStorageService;
+    private final PasswordHasher passwordHasher;
+    private final TokenService tokenService;
 
     /**
      * 用户注册
@@ -46,33 +47,24 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public UserVO register(RegisterDTO registerDTO) {
-        // 检查用户名是否已存在
-        LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(User::getUsername, registerDTO.getUsername());
-        if (userMapper.selectCount(queryWrapper) > 0) {
-            throw new RuntimeException("用户名已存在");
-        }
-
-        // 检查邮箱是否已存在
-        queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(User::getEmail, registerDTO.getEmail());
-        if (userMapper.selectCount(queryWrapper) > 0) {
-            throw new RuntimeException("邮箱已被注册");
-        }
-
         // 创建用户
         User user = new User();
         user.setUsername(registerDTO.getUsername());
         user.setEmail(registerDTO.getEmail());
-        // 使用MD5加密密码
-        user.setPassword(DigestUtils.md5DigestAsHex(registerDTO.getPassword().getBytes()));
+        user.setPassword(passwordHasher.hash(registerDTO.getPassword()));
         user.setNickname(registerDTO.getUsername());
         user.setRole("user");
         user.setStatus(0);
         user.setCreateTime(LocalDateTime.now());
         user.setUpdateTime(LocalDateTime.now());
 
-        userMapper.insert(user);
+        // 直接插入，由 uk_username / uk_email 唯一索引判重，并发注册同名账号时也只有一个成功
+        try {
+            userMapper.insert(user);
+        } catch (DuplicateKeyException e) {
+            String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+            throw new RuntimeException(message.contains("uk_email") ? "邮箱已被注册" : "用户名已存在");
+        }
 
         return convertToVO(user);
     }
@@ -85,6 +77,9 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public UserVO login(LoginDTO loginDTO) {
+        // 在读取用户状态之前取签发时间点，读取之后才生效的封禁也能作废本次签发的令牌
+        long asOf = tokenService.checkpoint();
+
         // 根据用户名查询用户
         LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(User::getUsername, loginDTO.getUsername());
@@ -95,8 +90,7 @@ public class UserServiceImpl implements UserService {
         }
 
         // 验证密码
-        String encryptedPassword = DigestUtils.md5DigestAsHex(loginDTO.getPassword().getBytes());
-        if (!encryptedPassword.equals(user.getPassword())) {
+        if (!passwordHasher.matches(loginDTO.getPassword(), user.getPassword())) {
             throw new RuntimeException("用户名或密码错误");
         }
 
@@ -116,7 +110,14 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("该账号为管理员，请选择管理员登录");
         }
 
-        return convertToVO(user);
+        // 旧格式（MD5 或较低迭代次数）的哈希在登录校验全部通过后升级，被拒绝的登录不产生额外的哈希和写库
+        if (passwordHasher.needsUpgrade(user.getPassword())) {
+            upgradePassword(user, loginDTO.getPassword());
+        }
+
+        UserVO vo = convertToVO(user);
+        vo.setToken(tokenService.issue(new AuthPrincipal(user.getId(), user.getRole(), user.getStatus()), asOf));
+        return vo;
     }
 
     @Override
@@ -138,6 +139,7 @@ public class UserServiceImpl implements UserService {
 
         user.setUpdateTime(LocalDateTime.now());
         userMapper.updateById(user);
+        userSummaryCache.evict(userId);
         return convertToVO(user);
     }
 
@@ -148,33 +150,12 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("请选择头像文件");
         }
 
-        String contentType = file.getContentType();
-        Set<String> allowedTypes = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
-        if (contentType == null || !allowedTypes.contains(contentType)) {
-            throw new RuntimeException("仅支持上传 jpg/png/gif/webp 图片");
-        }
-
-        String extension = switch (contentType) {
-            case "image/jpeg" -> ".jpg";
-            case "image/png" -> ".png";
-            case "image/gif" -> ".gif";
-            case "image/webp" -> ".webp";
-            default -> "";
-        };
-
-        String filename = UUID.randomUUID() + extension;
-        Path avatarDir = Paths.get(uploadDir, "avatars");
-        try {
-            Files.createDirectories(avatarDir);
-            Path target = avatarDir.resolve(filename).normalize();
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new RuntimeException("头像上传失败: " + e.getMessage() + ", 目录: " + avatarDir.toAbsolutePath());
-        }
-
-        user.setAvatar("/uploads/avatars/" + filename);
+        String oldAvatar = user.getAvatar();
+        user.setAvatar(mediaStorageService.storeImage(file));
         user.setUpdateTime(LocalDateTime.now());
         userMapper.updateById(user);
+        userSummaryCache.evict(userId);
+        mediaStorageService.release(oldAvatar);
         return convertToVO(user);
     }
 
@@ -191,15 +172,34 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("新密码长度至少 6 位");
         }
 
-        String encryptedOld = DigestUtils.md5DigestAsHex(updatePasswordDTO.getOldPassword().getBytes());
-        if (!encryptedOld.equals(user.getPassword())) {
+        if (!passwordHasher.matches(updatePasswordDTO.getOldPassword(), user.getPassword())) {
             throw new RuntimeException("旧密码错误");
         }
 
-        user.setPassword(DigestUtils.md5DigestAsHex(updatePasswordDTO.getNewPassword().getBytes()));
+        user.setPassword(passwordHasher.hash(updatePasswordDTO.getNewPassword()));
         user.setUpdateTime(LocalDateTime.now());
         userMapper.updateById(user);
-        return convertToVO(user);
+
+        // 旧令牌（包括可能已泄露的）全部作废，重新读取状态后签发新令牌
+        tokenService.revoke(userId);
+        long asOf = tokenService.checkpoint();
+        User current = getActiveUser(userId);
+        UserVO vo = convertToVO(current);
+        vo.setToken(tokenService.issue(new AuthPrincipal(current.getId(), current.getRole(), current.getStatus()), asOf));
+        return vo;
+    }
+
+    /**
+     * 用当前参数重新哈希密码；仅在密码未被并发修改时写入
+     */
+    private void upgradePassword(User user, String rawPassword) {
+        String upgraded = passwordHasher.hash(rawPassword);
+        LambdaUpdateWrapper<User> uw = new LambdaUpdateWrapper<>();
+        uw.eq(User::getId, user.getId())
+                .eq(User::getPassword, user.getPassword())
+                .set(User::getPassword, upgraded);
+        userMapper.update(null, uw);
+        user.setPassword(upgraded);
     }
 
     /**
@@ -215,6 +215,7 @@ public class UserServiceImpl implements UserService {
         vo.setEmail(user.getEmail());
         vo.setNickname(user.getNickname());
         vo.setAvatar(user.getAvatar());
+        vo.setAvatarThumbnail(ImageVariants.url(user.getAvatar(), ImageVariants.SMALL));
         vo.setRole(user.getRole());
         return vo;
     }
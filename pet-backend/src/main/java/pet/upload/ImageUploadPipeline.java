@@ -0,0 +1,130 @@
+package pet.upload;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 多图上传流水线
+ * <p>
+ * 在有界线程池上并行写盘，调用线程等待全部完成后按原顺序返回结果。
+ * 队列满时直接拒绝，避免上传高峰拖垮整个服务。
+ */
+@Slf4j
+@Component
+public class ImageUploadPipeline {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer batchTimer;
+    private final Timer fileTimer;
+
+    public ImageUploadPipeline(MeterRegistry registry,
+                               @Value("${app.upload.pipeline-threads:8}") int threads,
+                               @Value("${app.upload.pipeline-queue-capacity:200}") int queueCapacity) {
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                r -> {
+                    Thread t = new Thread(r, "image-upload-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.batchTimer = Timer.builder("upload.pipeline.batch").publishPercentiles(0.5, 0.99).register(registry);
+        this.fileTimer = Timer.builder("upload.pipeline.file").register(registry);
+        Gauge.builder("upload.pipeline.queue.depth", executor, e -> e.getQueue().size()).register(registry);
+        Gauge.builder("upload.pipeline.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+    }
+
+    /**
+     * 并行保存一组文件
+     * <p>
+     * 保存逻辑始终不在调用方事务内执行（单张图片且调用方不在事务中时才在调用线程执行，其余交给线程池），
+     * 所以各文件的登记都是独立提交的。任一文件失败或被拒绝时，已保存成功的文件通过 release 释放，
+     * 仍在执行的等完成后再释放，不会留下无人引用却计了数的文件。
+     *
+     * @param files   待保存文件（调用方已完成校验）
+     * @param storer  单个文件的保存逻辑，返回访问 URL
+     * @param release 撤销一次保存（释放引用）
+     * @return 与 files 顺序一致的 URL 列表
+     */
+    public List<String> storeAll(List<MultipartFile> files, Function<MultipartFile, String> storer, Consumer<String> release) {
+        if (files.isEmpty()) return new ArrayList<>();
+        long start = System.nanoTime();
+        if (files.size() == 1 && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            // 单张图片直接在调用线程写入，省去线程切换
+            try {
+                return new ArrayList<>(List.of(timed(storer, files.get(0))));
+            } finally {
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        List<CompletableFuture<String>> futures = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                futures.add(CompletableFuture.supplyAsync(() -> timed(storer, file), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+            List<String> urls = new ArrayList<>(files.size());
+            for (CompletableFuture<String> f : futures) urls.add(f.join());
+            return urls;
+        } catch (RejectedExecutionException e) {
+            releaseStored(futures, release);
+            throw new RuntimeException("上传繁忙，请稍后重试");
+        } catch (ExecutionException e) {
+            releaseStored(futures, release);
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException("图片上传失败");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseStored(futures, release);
+            throw new RuntimeException("图片上传失败");
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 释放已保存成功的文件；尚未完成的在完成后由执行线程释放，失败的无需处理
+     */
+    private static void releaseStored(List<CompletableFuture<String>> futures, Consumer<String> release) {
+        for (CompletableFuture<String> f : futures) {
+            f.thenAccept(url -> {
+                try {
+                    release.accept(url);
+                } catch (RuntimeException e) {
+                    log.warn("释放未使用的上传文件失败: {}", url, e);
+                }
+            });
+        }
+    }
+
+    private String timed(Function<MultipartFile, String> storer, MultipartFile file) {
+        long start = System.nanoTime();
+        try {
+            return storer.apply(file);
+        } finally {
+            fileTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
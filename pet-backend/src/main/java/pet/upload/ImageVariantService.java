@@ -0,0 +1,214 @@
+package pet.upload;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 定宽缩略图生成
+ * <p>
+ * 首次访问时用 ImageIO 生成并写入 app.upload-dir/variants/{宽度}/ 下，之后直接读盘。
+ * 原图不宽于目标宽度、格式无法处理（gif 动图、webp）、解码失败，或解码结果、缩略图的像素数超过
+ * app.upload.variant-max-pixels（极端长宽比的图片按宽度采样后仍可能占满堆内存）时返回原图。
+ */
+@Slf4j
+@Component
+public class ImageVariantService {
+
+    private final Path uploadRoot;
+    private final Path variantRoot;
+    private final Semaphore permits;
+    private final long maxPixels;
+    private final Timer generateTimer;
+    private final Counter fallbacks;
+
+    /**
+     * 按目标文件分段加锁，同一缩略图只生成一次
+     */
+    private final Object[] locks = new Object[64];
+
+    public ImageVariantService(MeterRegistry registry,
+                               @Value("${app.upload-dir:uploads}") String uploadDir,
+                               @Value("${app.upload.variant-concurrency:0}") int concurrency,
+                               @Value("${app.upload.variant-max-pixels:16777216}") long maxPixels) {
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.variantRoot = uploadRoot.resolve("variants");
+        this.permits = new Semaphore(concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors());
+        this.maxPixels = Math.max(maxPixels, 1);
+        this.generateTimer = Timer.builder("upload.variant.generate").register(registry);
+        this.fallbacks = Counter.builder("upload.variant.fallback").register(registry);
+        for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+    }
+
+    /**
+     * 获取原图的定宽版本，必要时生成
+     *
+     * @param width        目标宽度，须在 {@link ImageVariants#WIDTHS} 内
+     * @param relativePath 原图相对于上传目录的路径
+     * @return 可直接返回给客户端的文件，原图不存在时返回 null
+     */
+    public Path resolve(int width, String relativePath) {
+        if (!ImageVariants.WIDTHS.contains(width)) return null;
+        Path original = uploadRoot.resolve(relativePath).normalize();
+        if (!original.startsWith(uploadRoot) || original.startsWith(variantRoot) || !Files.isRegularFile(original)) {
+            return null;
+        }
+        String format = formatOf(original);
+        if (format == null) return original;
+
+        Path variant = variantRoot.resolve(String.valueOf(width)).resolve(uploadRoot.relativize(original));
+        if (Files.exists(variant)) return variant;
+        synchronized (locks[Math.floorMod(variant.hashCode(), locks.length)]) {
+            if (Files.exists(variant)) return variant;
+            try {
+                permits.acquire();
+                try {
+                    Boolean generated = generateTimer.record(() -> generate(original, variant, width, format));
+                    // 无需缩小或无法解码时落一份原图副本，避免之后每次请求重复解码
+                    if (!Boolean.TRUE.equals(generated)) copy(original, variant);
+                } finally {
+                    permits.release();
+                }
+                return variant;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return original;
+            } catch (IOException | RuntimeException e) {
+                fallbacks.increment();
+                log.warn("生成缩略图失败: {} ({}px)", relativePath, width, e);
+                return original;
+            }
+        }
+    }
+
+    /**
+     * 原图删除后清理其全部缩略图
+     */
+    public void evict(String relativePath) {
+        for (int width : ImageVariants.WIDTHS) {
+            Path variant = variantRoot.resolve(String.valueOf(width)).resolve(relativePath).normalize();
+            if (!variant.startsWith(variantRoot)) continue;
+            try {
+                Files.deleteIfExists(variant);
+            } catch (IOException e) {
+                log.warn("删除缩略图失败: {}", variant, e);
+            }
+        }
+    }
+
+    private boolean generate(Path original, Path variant, int width, String format) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) return false;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return false;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int srcWidth = reader.getWidth(0);
+                int srcHeight = reader.getHeight(0);
+                if (srcWidth <= width) return false;
+
+                // 大图先按整数倍隔行采样解码，避免把整张原图读进内存
+                int step = Math.max(srcWidth / (width * 2), 1);
+                int height = (int) Math.max(1, Math.round((double) srcHeight * width / srcWidth));
+                // 采样步长只由宽度决定，窄而极高的图片解码后仍可能有上亿像素，读取前按宽高一起检查
+                long decodedPixels = (long) Math.ceilDiv(srcWidth, step) * Math.ceilDiv(srcHeight, step);
+                if (decodedPixels > maxPixels || (long) width * height > maxPixels) {
+                    log.warn("图片像素过多，不生成缩略图: {} ({}x{})", original, srcWidth, srcHeight);
+                    return false;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (step > 1) param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage src = reader.read(0, param);
+
+                BufferedImage scaled = scale(src, width, height, "jpg".equals(format));
+                write(scaled, format, variant);
+                return true;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.debug("无法解码图片: {}", original, e);
+            return false;
+        }
+    }
+
+    /**
+     * 逐级减半缩放，最后一步缩放到目标尺寸，双线性插值下质量接近一次性高质量缩放
+     */
+    private static BufferedImage scale(BufferedImage src, int width, int height, boolean opaque) {
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        do {
+            w = Math.max(w / 2, width);
+            h = Math.max(h / 2, height);
+            BufferedImage next = new BufferedImage(w, h, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (opaque) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, w, h);
+                }
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.CREATE_NEW)) {
+                if (!ImageIO.write(image, format, out)) throw new IOException("no ImageIO writer for " + format);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void copy(Path original, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        try {
+            Files.copy(original, tmp);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 只处理 ImageIO 可读写且为静态图的格式
+     */
+    private static String formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) return "jpg";
+        if (name.endsWith(".png")) return "png";
+        return null;
+    }
+}
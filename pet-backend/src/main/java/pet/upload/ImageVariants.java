@@ -0,0 +1,51 @@
+package pet.upload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 图片缩略图地址规则
+ * <p>
+ * 原图 /uploads/xxx 对应的定宽版本为 /uploads/variants/{宽度}/xxx，首次访问时生成并落盘。
+ */
+public final class ImageVariants {
+
+    public static final String UPLOAD_PREFIX = "/uploads/";
+    public static final String VARIANT_PREFIX = "/uploads/variants/";
+
+    /**
+     * 允许生成的宽度（像素）
+     */
+    public static final Set<Integer> WIDTHS = Set.of(160, 480, 1080);
+
+    /**
+     * 头像、宠物列表等小图
+     */
+    public static final int SMALL = 160;
+
+    /**
+     * 动态配图缩略图
+     */
+    public static final int MEDIUM = 480;
+
+    private ImageVariants() {
+    }
+
+    /**
+     * 计算原图的定宽版本地址，非本站上传的地址原样返回
+     */
+    public static String url(String original, int width) {
+        if (original == null || !original.startsWith(UPLOAD_PREFIX) || original.startsWith(VARIANT_PREFIX)) {
+            return original;
+        }
+        return VARIANT_PREFIX + width + "/" + original.substring(UPLOAD_PREFIX.length());
+    }
+
+    public static List<String> urls(List<String> originals, int width) {
+        if (originals == null) return null;
+        List<String> result = new ArrayList<>(originals.size());
+        for (String url : originals) result.add(url(url, width));
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+package pet.upload;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 上传文件的强 ETag（内容 SHA-256）
+ * <p>
+ * 每个文件只计算一次摘要，按路径缓存并以修改时间和大小校验；容量受限并按 LRU 淘汰。
+ */
+@Slf4j
+@Component
+public class UploadEtagGenerator implements Function<Resource, String> {
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    public UploadEtagGenerator(@Value("${app.upload.etag-cache-size:10000}") int maxSize) {
+        int capacity = Math.max(maxSize, 1);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return 不带引号的 ETag，无法读取文件时返回 null（退化为只按 Last-Modified 协商）
+     */
+    @Override
+    public String apply(Resource resource) {
+        try {
+            File file = resource.getFile();
+            String key = file.getAbsolutePath();
+            long lastModified = file.lastModified();
+            long length = file.length();
+            synchronized (this) {
+                Entry e = entries.get(key);
+                if (e != null && e.lastModified() == lastModified && e.length() == length) return e.etag();
+            }
+            String etag = sha256(file);
+            synchronized (this) {
+                entries.put(key, new Entry(lastModified, length, etag));
+            }
+            return etag;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.debug("计算 ETag 失败: {}", resource, e);
+            return null;
+        }
+    }
+
+    private static String sha256(File file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private record Entry(long lastModified, long length, String etag) {
+    }
+}
@@ -10,7 +10,13 @@ public class CommunityPostVO {
     private Long id;
     private String content;
     private List<String> images;
+    /**
+     * 与 images 一一对应的缩略图（480px 宽）
+     */
+    private List<String> thumbnails;
     private CommunityUserVO author;
+    private Integer commentCount;
+    private Integer imageCount;
     private LocalDateTime createTime;
 }
 
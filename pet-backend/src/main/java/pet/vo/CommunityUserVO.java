@@ -7,5 +7,9 @@ public class CommunityUserVO {
     private Long id;
     private String nickname;
     private String avatar;
+    /**
+     * 头像缩略图（160px 宽）
+     */
+    private String avatarThumbnail;
 }
 
@@ -0,0 +1,21 @@
+package pet.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CursorPageVO<T> {
+    private List<T> list;
+    /**
+     * 下一页游标，为 null 表示没有更多数据
+     */
+    private String nextCursor;
+
+    public static <T> CursorPageVO<T> of(List<T> list, String nextCursor) {
+        CursorPageVO<T> vo = new CursorPageVO<>();
+        vo.setList(list);
+        vo.setNextCursor(nextCursor);
+        return vo;
+    }
+}
@@ -0,0 +1,39 @@
+package pet.vo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 健康记录批量导入结果
+ */
+@Data
+public class HealthRecordImportVO {
+    /**
+     * 成功写入的条数（有错误时整批不写入，为 0）
+     */
+    private int imported;
+    /**
+     * 校验失败的行数
+     */
+    private int failed;
+    /**
+     * 逐行错误（最多返回前 100 条）
+     */
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    public static class RowError {
+        /**
+         * 行号：CSV 为文件中的记录序号（含表头），JSON 为数组下标（从 1 开始）
+         */
+        private int row;
+        private String message;
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+    }
+}
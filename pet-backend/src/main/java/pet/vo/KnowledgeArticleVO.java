@@ -14,5 +14,9 @@ public class KnowledgeArticleVO {
     private String cover;
     private LocalDateTime createTime;
     private String content;
+    /**
+     * 搜索结果摘要（已转义，命中词以 &lt;mark&gt; 标出），仅全文检索时返回
+     */
+    private String highlight;
 }
 
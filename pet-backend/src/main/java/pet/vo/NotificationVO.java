@@ -0,0 +1,15 @@
+package pet.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class NotificationVO {
+    private Long id;
+    private Long petId;
+    private String title;
+    private String content;
+    private Boolean read;
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,33 @@
+package pet.vo;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 宠物列表页：宠物档案 + 健康记录数 + 最近一条健康记录
+ */
+@Data
+public class PetOverviewVO {
+    private Long id;
+    private String name;
+    private String breed;
+    private Integer gender;
+    private LocalDate birthday;
+    private String photo;
+    /**
+     * 照片缩略图（160px 宽）
+     */
+    private String photoThumbnail;
+    /**
+     * 健康记录数
+     */
+    private Integer recordCount;
+    /**
+     * 最近一条健康记录，没有记录时为 null
+     */
+    private Long latestRecordId;
+    private LocalDateTime latestRecordTime;
+    private String latestRecordTitle;
+}
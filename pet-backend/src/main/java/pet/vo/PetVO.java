@@ -12,5 +12,9 @@ public class PetVO {
     private Integer gender;
     private LocalDate birthday;
     private String photo;
+    /**
+     * 照片缩略图（160px 宽）
+     */
+    private String photoThumbnail;
 }
 
@@ -0,0 +1,17 @@
+package pet.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ReminderVO {
+    private Long id;
+    private Long petId;
+    private String petName;
+    private Long recordId;
+    private String type;
+    private String title;
+    private LocalDateTime dueTime;
+    private LocalDateTime remindTime;
+}
@@ -33,8 +33,18 @@ public class UserVO {
      */
     private String avatar;
 
+    /**
+     * 头像缩略图URL（160px 宽）
+     */
+    private String avatarThumbnail;
+
     /**
      * 用户角色：user/admin
      */
     private String role;
+
+    /**
+     * 登录令牌（仅登录接口返回，后续请求放在 Authorization: Bearer 头中）
+     */
+    private String token;
 }
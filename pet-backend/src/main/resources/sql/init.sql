@@ -8,7 +8,7 @@ CREATE TABLE IF NOT EXISTS `user` (
     `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '用户ID',
     `username` VARCHAR(50) NOT NULL COMMENT '用户名',
     `email` VARCHAR(100) NOT NULL COMMENT '邮箱',
-    `password` VARCHAR(100) NOT NULL COMMENT '密码（MD5加密）',
+    `password` VARCHAR(255) NOT NULL COMMENT '密码哈希（PBKDF2，含算法参数；历史数据为 MD5）',
     `nickname` VARCHAR(50) DEFAULT NULL COMMENT '昵称',
     `avatar` VARCHAR(255) DEFAULT NULL COMMENT '头像URL',
     `role` VARCHAR(10) NOT NULL DEFAULT 'user' COMMENT '用户角色：user/admin',
@@ -47,19 +47,36 @@ CREATE TABLE IF NOT EXISTS `health_record` (
     `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
-    KEY `idx_hr_pet_id` (`pet_id`),
-    KEY `idx_hr_record_time` (`record_time`),
+    KEY `idx_hr_pet_time` (`pet_id`, `record_time`, `id`),
     CONSTRAINT `fk_hr_pet` FOREIGN KEY (`pet_id`) REFERENCES `pet` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='宠物健康记录表';
 
+CREATE TABLE IF NOT EXISTS `media_file` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '媒体文件ID',
+    `sha256` CHAR(64) NOT NULL COMMENT '内容SHA-256',
+    `url` VARCHAR(255) NOT NULL COMMENT '访问URL',
+    `size` BIGINT NOT NULL DEFAULT 0 COMMENT '文件大小（字节）',
+    `content_type` VARCHAR(50) DEFAULT NULL COMMENT '文件类型',
+    `ref_count` INT NOT NULL DEFAULT 0 COMMENT '引用数',
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_media_url` (`url`),
+    KEY `idx_media_sha256` (`sha256`),
+    KEY `idx_media_ref_count` (`ref_count`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='媒体文件表（内容寻址存储）';
+
 CREATE TABLE IF NOT EXISTS `community_post` (
     `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '动态ID',
     `user_id` BIGINT NOT NULL COMMENT '发布用户ID',
     `content` TEXT NOT NULL COMMENT '动态内容',
+    `comment_count` INT NOT NULL DEFAULT 0 COMMENT '评论数',
+    `image_count` INT NOT NULL DEFAULT 0 COMMENT '图片数',
     `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
     KEY `idx_cp_user_id` (`user_id`),
+    KEY `idx_cp_create_time_id` (`create_time`, `id`),
     CONSTRAINT `fk_cp_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='社区动态表';
 
@@ -81,7 +98,7 @@ CREATE TABLE IF NOT EXISTS `community_comment` (
     `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
-    KEY `idx_cc_post_id` (`post_id`),
+    KEY `idx_cc_post_time_id` (`post_id`, `create_time`, `id`),
     KEY `idx_cc_user_id` (`user_id`),
     CONSTRAINT `fk_cc_post` FOREIGN KEY (`post_id`) REFERENCES `community_post` (`id`) ON DELETE CASCADE,
     CONSTRAINT `fk_cc_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
@@ -109,7 +126,7 @@ CREATE TABLE IF NOT EXISTS `knowledge_article` (
     PRIMARY KEY (`id`),
     KEY `idx_ka_category_id` (`category_id`),
     KEY `idx_ka_create_time` (`create_time`),
-    FULLTEXT KEY `ft_ka_title_content` (`title`, `content`),
+    FULLTEXT KEY `ft_ka_title_content` (`title`, `content`) WITH PARSER ngram,
     CONSTRAINT `fk_ka_category` FOREIGN KEY (`category_id`) REFERENCES `knowledge_category` (`id`) ON DELETE RESTRICT
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='养护知识文章表';
 
@@ -138,6 +155,42 @@ CREATE TABLE IF NOT EXISTS `site_config` (
     PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='网站基础配置表';
 
+CREATE TABLE IF NOT EXISTS `pet_reminder` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '提醒ID',
+    `user_id` BIGINT NOT NULL COMMENT '所属用户ID',
+    `pet_id` BIGINT NOT NULL COMMENT '宠物ID',
+    `record_id` BIGINT NOT NULL COMMENT '来源健康记录ID',
+    `type` VARCHAR(20) NOT NULL COMMENT '提醒类型：vaccine/deworm/deworm_external',
+    `title` VARCHAR(100) NOT NULL COMMENT '来源记录标题',
+    `due_time` DATETIME NOT NULL COMMENT '下次到期时间',
+    `remind_time` DATETIME NOT NULL COMMENT '提醒时间（到期前提前量）',
+    `status` TINYINT NOT NULL DEFAULT 0 COMMENT '状态：0-待提醒，1-已提醒，2-已取消',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_pr_status_remind` (`status`, `remind_time`, `id`),
+    KEY `idx_pr_pet_type` (`pet_id`, `type`, `status`),
+    KEY `idx_pr_record` (`record_id`),
+    KEY `idx_pr_user` (`user_id`, `status`, `due_time`),
+    CONSTRAINT `fk_pr_pet` FOREIGN KEY (`pet_id`) REFERENCES `pet` (`id`) ON DELETE CASCADE,
+    CONSTRAINT `fk_pr_record` FOREIGN KEY (`record_id`) REFERENCES `health_record` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='疫苗/驱虫提醒表';
+
+CREATE TABLE IF NOT EXISTS `user_notification` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '通知ID',
+    `user_id` BIGINT NOT NULL COMMENT '接收用户ID',
+    `pet_id` BIGINT DEFAULT NULL COMMENT '相关宠物ID',
+    `reminder_id` BIGINT DEFAULT NULL COMMENT '来源提醒ID',
+    `title` VARCHAR(120) NOT NULL COMMENT '标题',
+    `content` VARCHAR(500) NOT NULL COMMENT '内容',
+    `is_read` TINYINT NOT NULL DEFAULT 0 COMMENT '是否已读：0-未读，1-已读',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_un_user_time` (`user_id`, `create_time`, `id`),
+    KEY `idx_un_user_read` (`user_id`, `is_read`),
+    CONSTRAINT `fk_un_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='站内通知表';
+
 INSERT IGNORE INTO `knowledge_category` (`id`, `name`, `sort`) VALUES
   (1, '喂养', 10),
   (2, '疾病', 20),
@@ -0,0 +1,72 @@
+package pet.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pet.vo.KnowledgeArticleVO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KnowledgeArticleCacheTests {
+
+    private static final LocalDateTime V1 = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final LocalDateTime V2 = V1.plusSeconds(1);
+
+    private final KnowledgeArticleCache cache = new KnowledgeArticleCache(new ObjectMapper(), new SimpleMeterRegistry(), 10);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void sameVersionIsServedFromCache() {
+        KnowledgeArticleCache.Rendered first = cache.get(1L, V1, loader("旧标题"));
+        KnowledgeArticleCache.Rendered second = cache.get(1L, V1, loader("新标题"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void newerVersionIsRerenderedWithoutEvict() {
+        // 绕过管理端直接改库：不调用 evict，版本变化即重新渲染
+        KnowledgeArticleCache.Rendered before = cache.get(1L, V1, loader("旧标题"));
+        KnowledgeArticleCache.Rendered after = cache.get(1L, V2, loader("新标题"));
+
+        assertEquals(2, loads.get());
+        assertTrue(new String(after.json(), StandardCharsets.UTF_8).contains("新标题"));
+        assertNotEquals(before.etag(), after.etag());
+        assertSame(after, cache.get(1L, V2, loader("不应加载")));
+    }
+
+    @Test
+    void etagCarriesVersion() {
+        KnowledgeArticleCache.Rendered v1 = cache.get(1L, V1, loader("标题"));
+        cache.evict(1L);
+        KnowledgeArticleCache.Rendered v2 = cache.get(1L, V2, loader("标题"));
+
+        assertArrayEquals(v1.json(), v2.json());
+        assertNotEquals(v1.etag(), v2.etag());
+    }
+
+    @Test
+    void evictDropsEntry() {
+        cache.get(1L, V1, loader("旧标题"));
+        cache.evict(1L);
+        cache.get(1L, V1, loader("新标题"));
+
+        assertEquals(2, loads.get());
+    }
+
+    private Function<Long, KnowledgeArticleVO> loader(String title) {
+        return id -> {
+            loads.incrementAndGet();
+            KnowledgeArticleVO vo = new KnowledgeArticleVO();
+            vo.setId(id);
+            vo.setTitle(title);
+            return vo;
+        };
+    }
+}
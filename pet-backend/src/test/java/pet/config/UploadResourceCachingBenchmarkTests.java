@@ -0,0 +1,95 @@
+package pet.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 上传文件 HTTP 缓存基准：模拟同一用户反复浏览动态流，统计每次浏览实际传输的图片字节数
+ */
+@Slf4j
+@SpringBootTest(properties = "app.upload-dir=target/upload-cache-bench")
+@AutoConfigureMockMvc
+class UploadResourceCachingBenchmarkTests {
+
+    private static final Path UPLOAD_DIR = Paths.get("target/upload-cache-bench");
+    private static final int IMAGES_PER_VIEW = 30;
+    private static final int IMAGE_SIZE = 200 * 1024;
+    private static final int VIEWS = 10;
+
+    private static final List<String> urls = new ArrayList<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void createImages() throws IOException {
+        Path dir = UPLOAD_DIR.resolve("community_images");
+        Files.createDirectories(dir);
+        Random random = new Random(42);
+        for (int i = 0; i < IMAGES_PER_VIEW; i++) {
+            byte[] data = new byte[IMAGE_SIZE];
+            random.nextBytes(data);
+            Files.write(dir.resolve("bench-" + i + ".jpg"), data);
+            urls.add("/uploads/community_images/bench-" + i + ".jpg");
+        }
+    }
+
+    @Test
+    void repeatedFeedViewsOnlyRevalidate() throws Exception {
+        Map<String, String> etags = new HashMap<>();
+        long[] bytesPerView = new long[VIEWS];
+        for (int view = 0; view < VIEWS; view++) {
+            for (String url : urls) {
+                String etag = etags.get(url);
+                MockHttpServletResponse resp = etag == null
+                        ? mockMvc.perform(get(url)).andReturn().getResponse()
+                        : mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+                if (etag == null) {
+                    assertEquals(200, resp.getStatus());
+                    assertTrue(resp.getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+                    etags.put(url, resp.getHeader(HttpHeaders.ETAG));
+                } else {
+                    assertEquals(304, resp.getStatus());
+                }
+                bytesPerView[view] += resp.getContentAsByteArray().length;
+            }
+        }
+
+        long firstView = (long) IMAGES_PER_VIEW * IMAGE_SIZE;
+        assertEquals(firstView, bytesPerView[0]);
+        for (int view = 1; view < VIEWS; view++) {
+            assertEquals(0, bytesPerView[view], "第 " + (view + 1) + " 次浏览不应重新传输图片");
+        }
+        log.info("上传文件缓存：每次浏览 {} 张图片，首次 {} 字节，之后 {} 次共节省 {} 字节",
+                IMAGES_PER_VIEW, firstView, VIEWS - 1, firstView * (VIEWS - 1));
+    }
+
+    @Test
+    void rangeRequestReturnsPartialContent() throws Exception {
+        MockHttpServletResponse resp = mockMvc.perform(get(urls.get(0)).header(HttpHeaders.RANGE, "bytes=0-1023"))
+                .andReturn().getResponse();
+        assertEquals(206, resp.getStatus());
+        assertEquals(1024, resp.getContentAsByteArray().length);
+        assertNotNull(resp.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+}
@@ -0,0 +1,183 @@
+package pet.export;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+import pet.entity.HealthRecord;
+import pet.mapper.HealthRecordMapper;
+import pet.reminder.ReminderRule;
+import pet.vo.HealthRecordImportVO;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.reminder.enabled=false")
+@Sql("/sql/pet-schema.sql")
+class HealthRecordImporterTests {
+
+    private static final long PET_ID = 1L;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private HealthRecordMapper healthRecordMapper;
+
+    @Test
+    void csvReaderHandlesQuotesNewlinesAndEscapes() {
+        HealthRecordImporter.CsvReader reader = new HealthRecordImporter.CsvReader(new StringReader(
+                "a,\"b,c\",\"line1\nline2\"\r\n\"say \"\"hi\"\"\",,\"\"\rlast"));
+
+        assertEquals(List.of("a", "b,c", "line1\nline2"), reader.next());
+        assertEquals(List.of("say \"hi\"", "", ""), reader.next());
+        assertEquals(List.of("last"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void csvReaderFlagsOverlongField() {
+        String big = "x".repeat(HealthRecordImporter.FIELD_MAX_LENGTH + 1);
+        HealthRecordImporter.CsvReader reader = new HealthRecordImporter.CsvReader(new StringReader(
+                "2024-01-01,\"" + big + "\"\n2024-01-02,ok\n"));
+
+        List<String> first = reader.next();
+        assertTrue(reader.fieldTooLong);
+        assertEquals(HealthRecordImporter.FIELD_MAX_LENGTH, first.get(1).length());
+        assertEquals(List.of("2024-01-02", "ok"), reader.next());
+        assertFalse(reader.fieldTooLong);
+    }
+
+    @Test
+    void importsExportedCsvWithBomAndHeader() throws IOException {
+        String csv = "\uFEFF记录时间,标题,内容\r\n"
+                + "2024-01-01 08:00:00,体检,\"体重 5kg,\"\"正常\"\"\"\r\n"
+                + "\r\n"
+                + "2024/1/2,狂犬疫苗,\"第一行\n第二行\"\r\n"
+                + "2024-01-03T09:30,洗澡,\r\n";
+
+        HealthRecordImporter.Result result = importer(2).importRecords(PET_ID, HealthRecordImporter.Format.CSV, stream(csv));
+
+        assertEquals(3, result.summary().getImported());
+        assertEquals(0, result.summary().getFailed());
+        Map<String, HealthRecord> saved = saved().stream().collect(Collectors.toMap(HealthRecord::getTitle, hr -> hr));
+        assertEquals(3, saved.size());
+        assertEquals("体重 5kg,\"正常\"", saved.get("体检").getContent());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 8, 0), saved.get("体检").getRecordTime());
+        assertEquals("第一行\n第二行", saved.get("狂犬疫苗").getContent());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 0, 0), saved.get("狂犬疫苗").getRecordTime());
+        assertNull(saved.get("洗澡").getContent());
+    }
+
+    @Test
+    void anyInvalidRowRollsBackEverything() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        // 每批 2 条：出错前已有几批写入数据库，必须随事务一起回滚
+        for (int i = 1; i <= 6; i++) csv.append("2024-01-0").append(i).append(",记录").append(i).append('\n');
+        csv.append("not-a-date,坏记录\n");
+        csv.append("2024-02-01,\n");
+
+        HealthRecordImporter.Result result = importer(2).importRecords(PET_ID, HealthRecordImporter.Format.CSV, stream(csv.toString()));
+
+        HealthRecordImportVO summary = result.summary();
+        assertEquals(0, summary.getImported());
+        assertEquals(2, summary.getFailed());
+        assertEquals(7, summary.getErrors().get(0).getRow());
+        assertEquals(8, summary.getErrors().get(1).getRow());
+        assertTrue(result.latestByRule().isEmpty());
+        assertEquals(0, saved().size());
+    }
+
+    @Test
+    void abortedImportRollsBackEarlierBatches() {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 11; i++) csv.append("2024-01-01,记录").append(i).append('\n');
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> importer(2).importRecords(PET_ID, HealthRecordImporter.Format.CSV, stream(csv.toString())));
+        assertTrue(e.getMessage().contains("10"));
+        assertEquals(0, saved().size());
+    }
+
+    @Test
+    void latestRecordPerRuleCarriesGeneratedId() throws IOException {
+        String json = "[{\"recordTime\":\"2024-01-01\",\"title\":\"疫苗\"},"
+                + "{\"recordTime\":\"2024-06-01\",\"title\":\"疫苗加强\",\"content\":\"第二针\"},"
+                + "{\"recordTime\":\"2024-03-01\",\"title\":\"体内驱虫\"},"
+                + "{\"recordTime\":\"2024-04-01\",\"title\":\"体检\"}]";
+
+        HealthRecordImporter.Result result = importer(3).importRecords(PET_ID, HealthRecordImporter.Format.JSON, stream(json));
+
+        assertEquals(4, result.summary().getImported());
+        Map<ReminderRule, HealthRecord> latest = new EnumMap<>(ReminderRule.class);
+        for (HealthRecord hr : result.latestByRule()) latest.put(ReminderRule.match(hr.getTitle()), hr);
+        assertEquals(2, latest.size());
+        for (HealthRecord hr : latest.values()) {
+            assertNotNull(hr.getId());
+            HealthRecord row = healthRecordMapper.selectById(hr.getId());
+            assertEquals(hr.getTitle(), row.getTitle());
+            assertEquals(PET_ID, row.getPetId());
+        }
+        assertEquals("疫苗加强", latest.get(ReminderRule.VACCINE).getTitle());
+        assertEquals("体内驱虫", latest.get(ReminderRule.DEWORM).getTitle());
+    }
+
+    @Test
+    void rejectsOversizedInput() {
+        HealthRecordImporter importer = new HealthRecordImporter(sqlSessionFactory, objectMapper, transactionTemplate, 10, 2, 64);
+        String csv = "2024-01-01,体检,\"" + "x".repeat(64) + "\"\n";
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> importer.importRecords(PET_ID, HealthRecordImporter.Format.CSV, stream(csv)));
+        assertTrue(e.getMessage().contains("导入内容不能超过"));
+        assertEquals(0, saved().size());
+    }
+
+    @Test
+    void rejectsOverlongFields() throws IOException {
+        String big = "长".repeat(HealthRecordImporter.FIELD_MAX_LENGTH + 1);
+
+        HealthRecordImportVO csv = importer(2).importRecords(PET_ID, HealthRecordImporter.Format.CSV,
+                stream("2024-01-01,体检," + big + "\n2024-01-02,洗澡\n")).summary();
+        assertEquals(0, csv.getImported());
+        assertEquals(1, csv.getFailed());
+        assertEquals(1, csv.getErrors().get(0).getRow());
+
+        String json = "[{\"recordTime\":\"2024-01-01\",\"title\":\"体检\"},"
+                + "{\"recordTime\":\"2024-01-02\",\"title\":\"洗澡\",\"content\":\"" + big + "\"}]";
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> importer(2).importRecords(PET_ID, HealthRecordImporter.Format.JSON, stream(json)));
+        assertTrue(e.getMessage().startsWith("第 2 条记录"));
+        assertEquals(0, saved().size());
+    }
+
+    private HealthRecordImporter importer(int batchSize) {
+        return new HealthRecordImporter(sqlSessionFactory, objectMapper, transactionTemplate, 10, batchSize, 1 << 20);
+    }
+
+    private List<HealthRecord> saved() {
+        return new ArrayList<>(healthRecordMapper.selectList(
+                new LambdaQueryWrapper<HealthRecord>().eq(HealthRecord::getPetId, PET_ID)));
+    }
+
+    private static ByteArrayInputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,277 @@
+package pet.reminder;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+import pet.entity.HealthRecord;
+import pet.entity.Pet;
+import pet.entity.PetReminder;
+import pet.mapper.HealthRecordMapper;
+import pet.mapper.PetMapper;
+import pet.mapper.PetReminderMapper;
+import pet.service.NotificationService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.reminder.enabled=false")
+@Sql("/sql/pet-schema.sql")
+class ReminderSchedulerTests {
+
+    private static final long USER_ID = 1L;
+
+    @Autowired
+    private PetReminderMapper reminderMapper;
+    @Autowired
+    private PetMapper petMapper;
+    @Autowired
+    private HealthRecordMapper healthRecordMapper;
+    @Autowired
+    private NotificationService notificationService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void firstLoadCoversOverdueAndWindowOnly() {
+        Long petId = pet();
+        LocalDateTime now = LocalDateTime.now();
+        Long overdue = reminder(petId, now.minusHours(1), PetReminder.STATUS_PENDING);
+        for (int i = 0; i < 5; i++) reminder(petId, now.plusMinutes(5), PetReminder.STATUS_PENDING);
+        reminder(petId, now.plusMinutes(3), PetReminder.STATUS_CANCELLED);
+        reminder(petId, now.plusDays(1), PetReminder.STATUS_PENDING);
+
+        // 每批 2 条，窗口内 6 条待提醒需要分 3 批以上读取
+        ReminderScheduler scheduler = scheduler(2);
+        scheduler.tick();
+
+        assertEquals(PetReminder.STATUS_FIRED, reminderMapper.selectById(overdue).getStatus());
+        assertEquals(1, count("SELECT COUNT(*) FROM user_notification WHERE reminder_id = " + overdue));
+        assertEquals(5, wheelSize());
+
+        // 窗口剩余超过一半时不重新加载，已到期的也不会重复通知
+        scheduler.tick();
+        assertEquals(5, wheelSize());
+        assertEquals(1, count("SELECT COUNT(*) FROM user_notification"));
+    }
+
+    @Test
+    void reminderCreatedInsideLoadedWindowJoinsWheel() {
+        Long petId = pet();
+        ReminderScheduler scheduler = scheduler(100);
+        scheduler.tick();
+        assertEquals(0, wheelSize());
+
+        // 一年后到期、提前 7 天提醒：提醒时间落在 3 分钟后
+        LocalDateTime now = LocalDateTime.now();
+        scheduler.onRecordSaved(USER_ID, record(petId, "狂犬疫苗", now.minusYears(1).plusDays(7).plusMinutes(3)), null);
+        assertEquals(1, wheelSize());
+
+        // 窗口外的只写库，等后续窗口加载
+        scheduler.onRecordSaved(USER_ID, record(petId, "体内驱虫", now), null);
+        assertEquals(1, wheelSize());
+        assertEquals(2, pending(petId).size());
+    }
+
+    @Test
+    void olderRecordDoesNotReplaceReminder() {
+        Long petId = pet();
+        ReminderScheduler scheduler = scheduler(100);
+        LocalDateTime now = LocalDateTime.now();
+        HealthRecord latest = record(petId, "狂犬疫苗", now);
+        scheduler.onRecordSaved(USER_ID, latest, null);
+        scheduler.onRecordSaved(USER_ID, record(petId, "疫苗补录", now.minusYears(2)), null);
+
+        List<PetReminder> pending = pending(petId);
+        assertEquals(1, pending.size());
+        assertEquals(latest.getId(), pending.get(0).getRecordId());
+    }
+
+    @Test
+    void deletingSourceRecordFallsBackToLatestRemaining() {
+        Long petId = pet();
+        ReminderScheduler scheduler = scheduler(2);
+        LocalDateTime now = LocalDateTime.now();
+        HealthRecord older = record(petId, "疫苗", now.minusMonths(6));
+        scheduler.onRecordSaved(USER_ID, older, null);
+        // 中间夹着多条无关记录，查找最新同类记录需要翻页
+        for (int i = 0; i < 5; i++) record(petId, "体检", now.minusMonths(3));
+        HealthRecord latest = record(petId, "疫苗加强", now.minusMonths(1));
+        scheduler.onRecordSaved(USER_ID, latest, null);
+        assertEquals(latest.getId(), pending(petId).get(0).getRecordId());
+
+        delete(scheduler, latest);
+
+        List<PetReminder> pending = pending(petId);
+        assertEquals(1, pending.size());
+        assertEquals(older.getId(), pending.get(0).getRecordId());
+        assertEquals(older.getRecordTime().plusYears(1).withNano(0), pending.get(0).getDueTime().withNano(0));
+    }
+
+    @Test
+    void deletingOtherRecordKeepsReminder() {
+        Long petId = pet();
+        ReminderScheduler scheduler = scheduler(100);
+        LocalDateTime now = LocalDateTime.now();
+        HealthRecord older = record(petId, "疫苗", now.minusMonths(6));
+        scheduler.onRecordSaved(USER_ID, older, null);
+        scheduler.onRecordSaved(USER_ID, record(petId, "疫苗加强", now.minusMonths(1)), null);
+        Long reminderId = pending(petId).get(0).getId();
+
+        delete(scheduler, older);
+
+        List<PetReminder> pending = pending(petId);
+        assertEquals(1, pending.size());
+        assertEquals(reminderId, pending.get(0).getId());
+    }
+
+    @Test
+    void retitledRecordHandsReminderBackToPreviousRecord() {
+        Long petId = pet();
+        ReminderScheduler scheduler = scheduler(100);
+        LocalDateTime now = LocalDateTime.now();
+        HealthRecord older = record(petId, "体外驱虫", now.minusDays(10));
+        scheduler.onRecordSaved(USER_ID, older, null);
+        HealthRecord latest = record(petId, "体外驱虫", now.minusDays(1));
+        scheduler.onRecordSaved(USER_ID, latest, null);
+
+        latest.setTitle("洗澡");
+        healthRecordMapper.updateById(latest);
+        scheduler.onRecordSaved(USER_ID, latest, "体外驱虫");
+
+        List<PetReminder> pending = pending(petId);
+        assertEquals(1, pending.size());
+        assertEquals(older.getId(), pending.get(0).getRecordId());
+    }
+
+    @Test
+    void reminderRollsBackWithEnclosingTransaction() {
+        Long petId = pet();
+        ReminderScheduler scheduler = scheduler(100);
+        scheduler.tick();
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            scheduler.onRecordSaved(USER_ID, record(petId, "狂犬疫苗", now.minusYears(1).plusDays(7).plusMinutes(3)), null);
+            throw new IllegalStateException("写入失败");
+        }));
+
+        assertEquals(0, count("SELECT COUNT(*) FROM health_record WHERE pet_id = " + petId));
+        assertEquals(0, count("SELECT COUNT(*) FROM pet_reminder WHERE pet_id = " + petId));
+        // 回滚的提醒不会进入时间轮
+        assertEquals(0, wheelSize());
+    }
+
+    @Test
+    void recordsWithoutRuleAreSkipped() {
+        Long petId = pet();
+        ReminderScheduler scheduler = scheduler(100);
+        HealthRecord hr = record(petId, "体检", LocalDateTime.now());
+        scheduler.onRecordSaved(USER_ID, hr, null);
+        scheduler.onRecordSaved(USER_ID, hr, "洗澡");
+
+        assertEquals(0, count("SELECT COUNT(*) FROM pet_reminder WHERE pet_id = " + petId));
+    }
+
+    @Test
+    void concurrentSavesLeaveOnePendingReminder() throws Exception {
+        ReminderScheduler scheduler = scheduler(100);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 10; round++) {
+                Long petId = pet();
+                LocalDateTime now = LocalDateTime.now();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    HealthRecord hr = record(petId, "疫苗", now.minusDays(i));
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        scheduler.onRecordSaved(USER_ID, hr, null);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> f : futures) f.get();
+
+                List<PetReminder> pending = pending(petId);
+                assertEquals(1, pending.size());
+                assertEquals(now.plusYears(1).withNano(0), pending.get(0).getDueTime().withNano(0));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private ReminderScheduler scheduler(int batchSize) {
+        return new ReminderScheduler(reminderMapper, petMapper, healthRecordMapper, notificationService,
+                transactionTemplate, registry, true, 1000, 512, 10, 60, batchSize, 7);
+    }
+
+    private int wheelSize() {
+        return (int) registry.get("reminder.wheel.size").gauge().value();
+    }
+
+    private Long pet() {
+        Pet pet = new Pet();
+        pet.setUserId(USER_ID);
+        pet.setName("豆豆");
+        petMapper.insert(pet);
+        return pet.getId();
+    }
+
+    private HealthRecord record(Long petId, String title, LocalDateTime time) {
+        HealthRecord hr = new HealthRecord();
+        hr.setPetId(petId);
+        hr.setTitle(title);
+        hr.setRecordTime(time);
+        healthRecordMapper.insert(hr);
+        return hr;
+    }
+
+    private void delete(ReminderScheduler scheduler, HealthRecord hr) {
+        transactionTemplate.executeWithoutResult(status -> {
+            scheduler.beforeRecordDeleted(USER_ID, hr);
+            healthRecordMapper.deleteById(hr.getId());
+        });
+    }
+
+    private Long reminder(Long petId, LocalDateTime remindTime, int status) {
+        PetReminder r = new PetReminder();
+        r.setUserId(USER_ID);
+        r.setPetId(petId);
+        r.setRecordId(0L);
+        r.setType(ReminderRule.VACCINE.type());
+        r.setTitle("疫苗");
+        r.setDueTime(remindTime.plusDays(7));
+        r.setRemindTime(remindTime);
+        r.setStatus(status);
+        reminderMapper.insert(r);
+        return r.getId();
+    }
+
+    private List<PetReminder> pending(Long petId) {
+        return reminderMapper.selectList(new LambdaQueryWrapper<PetReminder>()
+                .eq(PetReminder::getPetId, petId)
+                .eq(PetReminder::getStatus, PetReminder.STATUS_PENDING));
+    }
+
+    private int count(String sql) {
+        return jdbc.queryForObject(sql, Integer.class);
+    }
+}
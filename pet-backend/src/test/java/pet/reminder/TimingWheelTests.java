@@ -0,0 +1,85 @@
+package pet.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTests {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void firesOnDeadlineTick() {
+        TimingWheel wheel = new TimingWheel(TICK, 8, 0);
+        wheel.schedule(1, 3 * TICK);
+        wheel.schedule(2, 3 * TICK - 1);
+
+        assertEquals(List.of(), wheel.advance(2 * TICK));
+        assertEquals(2, wheel.size());
+        assertEquals(List.of(1L, 2L), sorted(wheel.advance(3 * TICK)));
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), wheel.advance(20 * TICK));
+    }
+
+    @Test
+    void deadlineBeyondOneTurnWaitsForItsRounds() {
+        TimingWheel wheel = new TimingWheel(TICK, 8, 0);
+        // 槽数为 8：第 2 刻度与第 18 刻度落在同一槽，后者要多转两圈
+        wheel.schedule(1, 2 * TICK);
+        wheel.schedule(2, 18 * TICK);
+
+        assertEquals(List.of(1L), wheel.advance(2 * TICK));
+        assertEquals(List.of(), wheel.advance(10 * TICK));
+        assertEquals(List.of(), wheel.advance(17 * TICK));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(2L), wheel.advance(18 * TICK));
+    }
+
+    @Test
+    void roundsCountFromCurrentTickAfterAdvancing() {
+        TimingWheel wheel = new TimingWheel(TICK, 8, 0);
+        wheel.advance(5 * TICK);
+        wheel.schedule(1, 21 * TICK);
+
+        assertEquals(List.of(), wheel.advance(20 * TICK));
+        assertEquals(List.of(1L), wheel.advance(21 * TICK));
+    }
+
+    @Test
+    void overdueEntriesFireOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(TICK, 8, 100 * TICK);
+        wheel.schedule(1, 0);
+        wheel.schedule(2, 50 * TICK);
+        wheel.schedule(3, 100 * TICK);
+
+        assertEquals(List.of(1L, 2L, 3L), sorted(wheel.advance(100 * TICK)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advancingPastManyTurnsCollectsEverything() {
+        TimingWheel wheel = new TimingWheel(TICK, 4, 0);
+        for (long i = 1; i <= 30; i++) wheel.schedule(i, i * TICK);
+
+        List<Long> expired = wheel.advance(30 * TICK);
+        assertEquals(30, expired.size());
+        assertEquals(1L, sorted(expired).get(0));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void wheelSizeRoundsUpToPowerOfTwo() {
+        TimingWheel wheel = new TimingWheel(TICK, 5, 0);
+        // 实际 8 个槽：第 9 刻度需要转一圈
+        wheel.schedule(1, 9 * TICK);
+
+        assertEquals(List.of(), wheel.advance(8 * TICK));
+        assertEquals(List.of(1L), wheel.advance(9 * TICK));
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().toList();
+    }
+}
@@ -0,0 +1,114 @@
+package pet.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTests {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex("test");
+        index.put(1, 10, 100, "猫咪疫苗接种时间");
+        index.put(2, 10, 200, "狗狗疫苗与驱虫");
+        index.put(3, 20, 100, "猫咪驱虫注意事项");
+        index.put(4, 20, 200, "Rabies vaccine 猫");
+    }
+
+    @Test
+    void allTermsMustMatch() {
+        assertEquals(List.of(3L), ids(index.search("猫咪 驱虫", null, null, InvertedIndex.Order.NEWEST, 0, 10)));
+        assertEquals(List.of(2L, 1L), ids(index.search("疫苗", null, null, InvertedIndex.Order.NEWEST, 0, 10)));
+        assertEquals(0, index.search("疫苗 不存在", null, null, InvertedIndex.Order.NEWEST, 0, 10).total());
+    }
+
+    @Test
+    void singleCjkMatchesBigramsAndStandaloneChar() {
+        assertEquals(List.of(4L, 3L, 1L), ids(index.search("猫", null, null, InvertedIndex.Order.NEWEST, 0, 10)));
+        assertEquals(List.of(3L, 2L), ids(index.search("虫", null, null, InvertedIndex.Order.NEWEST, 0, 10)));
+    }
+
+    @Test
+    void singleCjkStopsMatchingOnceDocumentsAreRemoved() {
+        index.remove(2);
+        index.remove(3);
+        assertEquals(0, index.search("虫", null, null, InvertedIndex.Order.NEWEST, 0, 10).total());
+        index.put(5, 30, 300, "体外驱虫");
+        assertEquals(List.of(5L), ids(index.search("虫", null, null, InvertedIndex.Order.NEWEST, 0, 10)));
+    }
+
+    @Test
+    void ownerAndGroupFilters() {
+        assertEquals(List.of(2L, 1L), ids(index.search("疫苗", 10L, null, InvertedIndex.Order.NEWEST, 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("疫苗", null, 100L, InvertedIndex.Order.NEWEST, 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("驱虫", 20L, 100L, InvertedIndex.Order.NEWEST, 0, 10)));
+        assertEquals(0, index.search("驱虫", 20L, 200L, InvertedIndex.Order.NEWEST, 0, 10).total());
+    }
+
+    @Test
+    void removeGroupDropsItsDocuments() {
+        index.removeGroup(100);
+        assertEquals(List.of(4L), ids(index.search("猫", null, null, InvertedIndex.Order.NEWEST, 0, 10)));
+    }
+
+    @Test
+    void relevanceOrderAndPaging() {
+        index.put(5, 30, 300, "驱虫驱虫驱虫");
+        SearchHits hits = index.search("驱虫", null, null, InvertedIndex.Order.RELEVANCE, 0, 1);
+        assertEquals(3, hits.total());
+        assertEquals(List.of(5L), hits.ids());
+        assertEquals(2, index.search("驱虫", null, null, InvertedIndex.Order.RELEVANCE, 1, 10).ids().size());
+    }
+
+    @Test
+    void snapshotRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeSnapshot(new DataOutputStream(bytes));
+
+        InvertedIndex restored = new InvertedIndex("restored");
+        restored.beginBuild();
+        long maxId = restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        restored.finishBuild();
+
+        assertEquals(4, maxId);
+        assertEquals(4, restored.size());
+        assertTrue(restored.isReady());
+        for (String q : List.of("猫", "疫苗", "猫咪 驱虫", "rabies")) {
+            assertEquals(ids(index.search(q, null, null, InvertedIndex.Order.NEWEST, 0, 10)),
+                    ids(restored.search(q, null, null, InvertedIndex.Order.NEWEST, 0, 10)), q);
+        }
+        assertEquals(List.of(1L), ids(restored.search("疫苗", null, 100L, InvertedIndex.Order.NEWEST, 0, 10)));
+    }
+
+    @Test
+    void snapshotSkipsDocumentsRemovedDuringBuild() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeSnapshot(new DataOutputStream(bytes));
+
+        InvertedIndex restored = new InvertedIndex("restored");
+        restored.beginBuild();
+        restored.remove(1);
+        restored.removeGroup(200);
+        restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        restored.finishBuild();
+
+        assertEquals(List.of(3L), ids(restored.search("猫", null, null, InvertedIndex.Order.NEWEST, 0, 10)));
+    }
+
+    @Test
+    void rejectsUnknownSnapshotFormat() {
+        InvertedIndex restored = new InvertedIndex("restored");
+        assertThrows(IOException.class,
+                () -> restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(new byte[8]))));
+    }
+
+    private static List<Long> ids(SearchHits hits) {
+        return hits.ids();
+    }
+}
@@ -0,0 +1,45 @@
+package pet.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenizerTests {
+
+    @Test
+    void cjkRunsBecomeBigrams() {
+        assertEquals(List.of("猫咪", "咪疫", "疫苗"), Tokenizer.tokenize("猫咪疫苗"));
+    }
+
+    @Test
+    void singleCjkRunIsKept() {
+        assertEquals(List.of("猫", "狗"), Tokenizer.tokenize("猫，狗"));
+    }
+
+    @Test
+    void lettersAndDigitsAreLowercasedWholeWords() {
+        assertEquals(List.of("rabies", "v2", "疫苗"), Tokenizer.tokenize("Rabies V2疫苗"));
+    }
+
+    @Test
+    void punctuationAndBlankTextYieldNothing() {
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+        assertTrue(Tokenizer.tokenize("").isEmpty());
+        assertTrue(Tokenizer.tokenize(" ，。!? ").isEmpty());
+    }
+
+    @Test
+    void tokenizeKeepsDuplicatesButQueryTermsDoNot() {
+        assertEquals(List.of("驱虫", "驱虫"), Tokenizer.tokenize("驱虫 驱虫"));
+        assertEquals(List.of("驱虫"), Tokenizer.queryTerms("驱虫 驱虫"));
+    }
+
+    @Test
+    void singleCjkDetection() {
+        assertTrue(Tokenizer.isSingleCjk("猫"));
+        assertFalse(Tokenizer.isSingleCjk("猫咪"));
+        assertFalse(Tokenizer.isSingleCjk("a"));
+    }
+}
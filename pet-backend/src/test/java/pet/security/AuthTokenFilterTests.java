@@ -0,0 +1,75 @@
+package pet.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import pet.common.AuthPrincipal;
+import pet.service.AuthService;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthTokenFilterTests {
+
+    private final TokenService tokens = new TokenService(null, new SimpleMeterRegistry(), "test-secret", 3600);
+
+    @Test
+    void validTokenReplacesClientUserId() throws Exception {
+        AuthPrincipal principal = new AuthPrincipal(7L, "user", 0);
+        MockHttpServletRequest request = request("1");
+        request.addHeader("Authorization", "Bearer " + tokens.issue(principal, tokens.checkpoint()));
+
+        HttpServletRequest seen = filter(true, request);
+
+        assertEquals("7", seen.getHeader("X-User-Id"));
+        assertEquals("7", seen.getHeader("x-user-id"));
+        assertEquals(List.of("7"), Collections.list(seen.getHeaders("X-User-Id")));
+        assertEquals(1, Collections.list(seen.getHeaderNames()).stream().filter("X-User-Id"::equalsIgnoreCase).count());
+        assertEquals(principal, seen.getAttribute(AuthService.PRINCIPAL_ATTRIBUTE));
+    }
+
+    @Test
+    void missingTokenStripsClientUserId() throws Exception {
+        HttpServletRequest seen = filter(true, request("1"));
+
+        assertNull(seen.getHeader("X-User-Id"));
+        assertFalse(seen.getHeaders("X-User-Id").hasMoreElements());
+        assertTrue(Collections.list(seen.getHeaderNames()).stream().noneMatch("X-User-Id"::equalsIgnoreCase));
+        assertNull(seen.getAttribute(AuthService.PRINCIPAL_ATTRIBUTE));
+    }
+
+    @Test
+    void invalidOrRevokedTokenStripsClientUserId() throws Exception {
+        MockHttpServletRequest forged = request("1");
+        forged.addHeader("Authorization", "Bearer forged.token");
+        assertNull(filter(true, forged).getHeader("X-User-Id"));
+
+        String token = tokens.issue(new AuthPrincipal(7L, "user", 0), tokens.checkpoint());
+        tokens.revoke(7L);
+        MockHttpServletRequest revoked = request("7");
+        revoked.addHeader("Authorization", "Bearer " + token);
+        assertNull(filter(true, revoked).getHeader("X-User-Id"));
+    }
+
+    @Test
+    void legacyHeaderKeptWhenTokenNotRequired() throws Exception {
+        assertEquals("1", filter(false, request("1")).getHeader("X-User-Id"));
+    }
+
+    private static MockHttpServletRequest request(String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/me");
+        request.addHeader("X-User-Id", userId);
+        return request;
+    }
+
+    private HttpServletRequest filter(boolean required, MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        new AuthTokenFilter(tokens, required).doFilter(request, new MockHttpServletResponse(), chain);
+        return (HttpServletRequest) chain.getRequest();
+    }
+}
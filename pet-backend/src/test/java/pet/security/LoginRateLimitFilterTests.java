@@ -0,0 +1,70 @@
+package pet.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimitFilterTests {
+
+    /**
+     * 每个 IP 只允许 1 次，第二次应被拒绝
+     */
+    private final LoginRateLimitFilter filter = new LoginRateLimitFilter(new ObjectMapper(), new SimpleMeterRegistry(),
+            true, 1, 1, 5, 5, 1000);
+
+    @Test
+    void secondLoginFromSameIpIsRejected() throws Exception {
+        assertEquals(200, post("", "/api/user/login").getStatus());
+        assertEquals(429, post("", "/api/user/login").getStatus());
+    }
+
+    @Test
+    void pathParametersDoNotBypassLimit() throws Exception {
+        assertEquals(200, post("", "/api/user/login").getStatus());
+        assertEquals(429, post("", "/api/user/login;x=1").getStatus());
+    }
+
+    @Test
+    void encodedAndDuplicateSlashPathsDoNotBypassLimit() throws Exception {
+        assertEquals(200, post("", "/api/user/%6cogin").getStatus());
+        assertEquals(429, post("", "//api/user/login").getStatus());
+    }
+
+    @Test
+    void contextPathIsIgnored() throws Exception {
+        assertEquals(200, post("/pet", "/pet/api/user/login").getStatus());
+        assertEquals(429, post("/pet", "/pet/api/user/register").getStatus());
+    }
+
+    @Test
+    void otherPathsAndMethodsAreNotLimited() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, post("", "/api/user/profile").getStatus());
+        }
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/user/login");
+        get.setRemoteAddr("10.0.0.1");
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(get, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    private MockHttpServletResponse post(String contextPath, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContextPath(contextPath);
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType("application/json");
+        request.setContent("{\"username\":\"alice\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,65 @@
+package pet.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PBKDF2 迭代次数基准：在目标机器上测出单次哈希耗时，并按目标耗时推荐 app.auth.password.iterations
+ * <p>
+ * 不随 mvn test 执行，需要时在部署机器上手动运行（targetMs 默认 100）：
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) -DtargetMs=100 pet.security.PasswordHashBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PasswordHashBenchmark {
+
+    @Param({"100000", "210000", "310000", "600000"})
+    public int iterations;
+
+    private byte[] salt;
+
+    @Setup
+    public void setup() {
+        salt = new byte[16];
+        new SecureRandom().nextBytes(salt);
+    }
+
+    @Benchmark
+    public byte[] pbkdf2() {
+        return PasswordHasher.pbkdf2("correct horse battery staple", salt, iterations);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        double targetMs = Double.parseDouble(System.getProperty("targetMs", "100"));
+        Options options = new OptionsBuilder()
+                .include(PasswordHashBenchmark.class.getName() + "\\.")
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        // 耗时与迭代次数近似线性，取各档的平均单次迭代耗时换算
+        double msPerIteration = 0;
+        for (RunResult r : results) {
+            int n = Integer.parseInt(r.getParams().getParam("iterations"));
+            msPerIteration += r.getPrimaryResult().getScore() / n;
+        }
+        msPerIteration /= Math.max(results.size(), 1);
+        long recommended = Math.max(10_000, (long) (targetMs / msPerIteration) / 10_000 * 10_000);
+        System.out.printf("%n单次迭代约 %.6f ms；目标 %.0f ms 时建议 app.auth.password.iterations: %d%n",
+                msPerIteration, targetMs, recommended);
+    }
+}
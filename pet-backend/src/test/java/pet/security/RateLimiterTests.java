@@ -0,0 +1,122 @@
+package pet.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    void allowsBurstThenRefillsOverTime() {
+        RateLimiter limiter = new RateLimiter(5, 5, 100, clock::get);
+        for (int i = 0; i < 5; i++) assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+
+        // 每分钟 5 个，即每 12 秒补 1 个
+        clock.addAndGet(11 * SECOND);
+        assertFalse(limiter.tryAcquire("alice"));
+        clock.addAndGet(SECOND);
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+
+        // 补充不超过容量
+        clock.addAndGet(10 * 60 * SECOND);
+        for (int i = 0; i < 5; i++) assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        RateLimiter limiter = new RateLimiter(2, 1, 100, clock::get);
+        assertTrue(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    void concurrentAcquiresNeverExceedCapacity() throws Exception {
+        int capacity = 50;
+        RateLimiter limiter = new RateLimiter(capacity, 1, 100, clock::get);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        AtomicInteger granted = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire("shared")) granted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(capacity, granted.get());
+    }
+
+    @Test
+    void sweepRemovesOnlyBucketsIdleLongEnoughToRefill() {
+        // 容量 5、每分钟 5 个：空闲满 60 秒的桶一定已补满，可以直接删除
+        RateLimiter limiter = new RateLimiter(5, 5, 100, clock::get);
+        for (int i = 0; i < 5; i++) limiter.tryAcquire("old");
+        clock.addAndGet(30 * SECOND);
+        limiter.tryAcquire("recent");
+        clock.addAndGet(30 * SECOND);
+
+        limiter.sweep();
+        assertEquals(1, limiter.size());
+        // recent 仍保留着扣掉的令牌
+        for (int i = 0; i < 4; i++) assertTrue(limiter.tryAcquire("recent"));
+
+        clock.addAndGet(60 * SECOND);
+        limiter.sweep();
+        assertEquals(0, limiter.size());
+        // 删除后重建的桶与补满的桶等价
+        for (int i = 0; i < 5; i++) assertTrue(limiter.tryAcquire("old"));
+        assertFalse(limiter.tryAcquire("old"));
+    }
+
+    @Test
+    void newKeysBeyondLimitNeverShareABucket() {
+        RateLimiter limiter = new RateLimiter(3, 1, 8, clock::get);
+        for (int i = 0; i < 3; i++) assertTrue(limiter.tryAcquire("victim"));
+        assertFalse(limiter.tryAcquire("victim"));
+
+        // 大量不同的键（撞库时每个用户名试一次）：每个新键都有自己的桶，被限流中的键不会因淘汰而重置
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire("attacker-" + i));
+            assertTrue(limiter.size() <= 8);
+        }
+        assertTrue(limiter.tryAcquire("someone-else"));
+        assertFalse(limiter.tryAcquire("victim"));
+    }
+
+    @Test
+    void evictsFullestBucketsFirst() {
+        RateLimiter limiter = new RateLimiter(3, 1, 4, clock::get);
+        for (int i = 0; i < 3; i++) limiter.tryAcquire("drained");
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        limiter.tryAcquire("c");
+        limiter.tryAcquire("d");
+
+        assertTrue(limiter.size() <= 4);
+        assertFalse(limiter.tryAcquire("drained"));
+    }
+}
@@ -0,0 +1,85 @@
+package pet.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pet.common.AuthPrincipal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTests {
+
+    private static final AuthPrincipal USER = new AuthPrincipal(7L, "user", 0);
+
+    private final TokenService tokens = new TokenService(null, new SimpleMeterRegistry(), "test-secret", 3600);
+
+    @Test
+    void verifiesIssuedToken() {
+        AuthPrincipal p = tokens.verify(tokens.issue(USER, tokens.checkpoint()));
+        assertEquals(USER, p);
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String token = tokens.issue(USER, tokens.checkpoint());
+        String body = token.substring(0, token.indexOf('.'));
+        String payload = new String(Base64.getUrlDecoder().decode(body), StandardCharsets.UTF_8);
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replaceFirst("^7:user", "8:admin").getBytes(StandardCharsets.UTF_8));
+        assertNull(tokens.verify(forged + token.substring(token.indexOf('.'))));
+    }
+
+    @Test
+    void rejectsTamperedOrMalformedSignature() {
+        String token = tokens.issue(USER, tokens.checkpoint());
+        char last = token.charAt(token.length() - 1);
+        assertNull(tokens.verify(token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A')));
+        assertNull(tokens.verify(token.substring(0, token.indexOf('.'))));
+        assertNull(tokens.verify("not a token"));
+        assertNull(tokens.verify(token.substring(0, token.indexOf('.') + 1) + "!!"));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        TokenService other = new TokenService(null, new SimpleMeterRegistry(), "other-secret", 3600);
+        assertNull(tokens.verify(other.issue(USER, other.checkpoint())));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        TokenService shortLived = new TokenService(null, new SimpleMeterRegistry(), "test-secret", 0);
+        assertNull(shortLived.verify(shortLived.issue(USER, shortLived.checkpoint())));
+    }
+
+    @Test
+    void revokeInvalidatesEarlierTokensOnly() {
+        String before = tokens.issue(USER, tokens.checkpoint());
+        tokens.revoke(USER.id());
+        String after = tokens.issue(USER, tokens.checkpoint());
+
+        assertNull(tokens.verify(before));
+        assertEquals(USER, tokens.verify(after));
+        assertEquals(new AuthPrincipal(8L, "user", 0),
+                tokens.verify(tokens.issue(new AuthPrincipal(8L, "user", 0), tokens.checkpoint())));
+    }
+
+    @Test
+    void revokeAfterStatusReadInvalidatesTokenIssuedLater() {
+        // 登录流程：先取时间点、读取状态，期间被封禁（撤销），随后才签发
+        long asOf = tokens.checkpoint();
+        tokens.revoke(USER.id());
+        assertNull(tokens.verify(tokens.issue(USER, asOf)));
+    }
+
+    @Test
+    void checkpointsAreStrictlyIncreasing() {
+        long previous = tokens.checkpoint();
+        for (int i = 0; i < 1000; i++) {
+            long next = tokens.checkpoint();
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package pet.upload;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantServiceTests {
+
+    @TempDir
+    Path uploadDir;
+
+    @Test
+    void scalesOrdinaryImageToWidth() throws IOException {
+        png("photo.png", 1600, 1200, BufferedImage.TYPE_INT_RGB);
+        ImageVariantService service = service(4_000_000);
+
+        Path variant = service.resolve(ImageVariants.MEDIUM, "photo.png");
+
+        assertTrue(variant.startsWith(uploadDir.resolve("variants")));
+        BufferedImage image = ImageIO.read(variant.toFile());
+        assertEquals(480, image.getWidth());
+        assertEquals(360, image.getHeight());
+    }
+
+    @Test
+    void skipsDecodingNarrowTallImageOverPixelCap() throws IOException {
+        // 宽 600 按 480 宽采样步长为 1，解码后仍有 2400 万像素
+        Path original = png("tall.png", 600, 40_000, BufferedImage.TYPE_BYTE_BINARY);
+        ImageVariantService service = service(1_000_000);
+
+        Path variant = service.resolve(ImageVariants.MEDIUM, "tall.png");
+
+        // 不解码，落一份原图副本，之后的请求直接读盘
+        assertArrayEquals(Files.readAllBytes(original), Files.readAllBytes(variant));
+        assertEquals(variant, service.resolve(ImageVariants.MEDIUM, "tall.png"));
+    }
+
+    @Test
+    void wideImageWithinCapAfterSubsamplingIsScaled() throws IOException {
+        // 原图 1200 万像素，按步长 4 采样后只有 75 万像素
+        png("wide.png", 4000, 3000, BufferedImage.TYPE_BYTE_BINARY);
+        ImageVariantService service = service(1_000_000);
+
+        BufferedImage image = ImageIO.read(service.resolve(ImageVariants.MEDIUM, "wide.png").toFile());
+        assertEquals(480, image.getWidth());
+        assertEquals(360, image.getHeight());
+    }
+
+    private ImageVariantService service(long maxPixels) {
+        return new ImageVariantService(new SimpleMeterRegistry(), uploadDir.toString(), 1, maxPixels);
+    }
+
+    private Path png(String name, int width, int height, int type) throws IOException {
+        Path file = uploadDir.resolve(name);
+        ImageIO.write(new BufferedImage(width, height, type), "png", file.toFile());
+        return file;
+    }
+}
@@ -0,0 +1,31 @@
+-- 宠物、健康记录与提醒相关表的 H2 版本：列类型、非空约束与默认值和 sql/init.sql 一致，
+-- 省略外键（测试数据不建 user 表）和与测试无关的索引；每次执行后清空数据
+CREATE TABLE IF NOT EXISTS pet (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, name VARCHAR(50) NOT NULL, breed VARCHAR(50),
+    gender TINYINT, birthday DATE, photo VARCHAR(255),
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP);
+CREATE TABLE IF NOT EXISTS health_record (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY, pet_id BIGINT NOT NULL, record_time DATETIME NOT NULL, title VARCHAR(100) NOT NULL,
+    content TEXT,
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP);
+CREATE INDEX IF NOT EXISTS idx_hr_pet_time ON health_record (pet_id, record_time, id);
+CREATE TABLE IF NOT EXISTS pet_reminder (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, pet_id BIGINT NOT NULL, record_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL, title VARCHAR(100) NOT NULL, due_time DATETIME NOT NULL, remind_time DATETIME NOT NULL,
+    status TINYINT NOT NULL DEFAULT 0,
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP);
+CREATE INDEX IF NOT EXISTS idx_pr_status_remind ON pet_reminder (status, remind_time, id);
+CREATE INDEX IF NOT EXISTS idx_pr_pet_type ON pet_reminder (pet_id, type, status);
+CREATE INDEX IF NOT EXISTS idx_pr_record ON pet_reminder (record_id);
+CREATE TABLE IF NOT EXISTS user_notification (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, pet_id BIGINT, reminder_id BIGINT,
+    title VARCHAR(120) NOT NULL, content VARCHAR(500) NOT NULL, is_read TINYINT NOT NULL DEFAULT 0,
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP);
+
+TRUNCATE TABLE user_notification;
+TRUNCATE TABLE pet_reminder;
+TRUNCATE TABLE health_record;
+TRUNCATE TABLE pet;
@@ -1,12 +1,5 @@
 import request from '@/utils/request'
 
-export function listPosts() {
-  return request({
-    url: '/community/posts',
-    method: 'get'
-  })
-}
-
 export function createPost(content, files) {
   const formData = new FormData()
   formData.append('content', content)
@@ -32,13 +25,6 @@ export function deletePost(postId) {
   })
 }
 
-export function listComments(postId) {
-  return request({
-    url: `/community/posts/${postId}/comments`,
-    method: 'get'
-  })
-}
-
 export function createComment(postId, data) {
   return request({
     url: `/community/posts/${postId}/comments`,
@@ -54,3 +40,19 @@ export function deleteComment(postId, commentId) {
   })
 }
 
+
+export function listFeed(params) {
+  return request({
+    url: '/community/feed',
+    method: 'get',
+    params
+  })
+}
+
+export function listCommentPage(postId, params) {
+  return request({
+    url: `/community/posts/${postId}/comments/page`,
+    method: 'get',
+    params
+  })
+}
@@ -15,6 +15,22 @@ export function listArticles(params = {}) {
   })
 }
 
+export function pageArticles(params = {}) {
+  return request({
+    url: '/knowledge/articles/page',
+    method: 'get',
+    params
+  })
+}
+
+export function searchArticles(params = {}) {
+  return request({
+    url: '/knowledge/search',
+    method: 'get',
+    params
+  })
+}
+
 export function getArticle(id) {
   return request({
     url: `/knowledge/articles/${id}`,
@@ -0,0 +1,37 @@
+import request from '@/utils/request'
+
+export function listNotifications(params = {}) {
+  return request({
+    url: '/notifications',
+    method: 'get',
+    params
+  })
+}
+
+export function unreadNotificationCount() {
+  return request({
+    url: '/notifications/unread-count',
+    method: 'get'
+  })
+}
+
+export function markNotificationRead(id) {
+  return request({
+    url: `/notifications/${id}/read`,
+    method: 'put'
+  })
+}
+
+export function markAllNotificationsRead() {
+  return request({
+    url: '/notifications/read-all',
+    method: 'put'
+  })
+}
+
+export function listUpcomingReminders() {
+  return request({
+    url: '/notifications/reminders',
+    method: 'get'
+  })
+}
@@ -7,6 +7,13 @@ export function listMyPets() {
   })
 }
 
+export function listPetOverview() {
+  return request({
+    url: '/pet/overview',
+    method: 'get'
+  })
+}
+
 export function createPet(data) {
   return request({
     url: '/pet',
@@ -50,6 +57,52 @@ export function listHealthRecords(petId) {
   })
 }
 
+export function listHealthRecordsInRange(petId, params) {
+  return request({
+    url: `/pet/${petId}/records/range`,
+    method: 'get',
+    params
+  })
+}
+
+export function pageHealthRecords(petId, params) {
+  return request({
+    url: `/pet/${petId}/records/page`,
+    method: 'get',
+    params
+  })
+}
+
+/**
+ * 导出健康记录（format: csv / ndjson），以 Blob 返回文件内容
+ */
+export function exportHealthRecords(petId, format = 'csv') {
+  return request({
+    url: `/pet/${petId}/records/export`,
+    method: 'get',
+    params: { format },
+    responseType: 'blob',
+    timeout: 0
+  })
+}
+
+/**
+ * 批量导入健康记录（CSV 或 JSON 文件）
+ */
+export function importHealthRecords(petId, file) {
+  const formData = new FormData()
+  formData.append('file', file)
+  return request({
+    url: `/pet/${petId}/records/import`,
+    method: 'post',
+    data: formData,
+    headers: {
+      'Content-Type': 'multipart/form-data'
+    },
+    timeout: 60000
+  })
+}
+
 export function createHealthRecord(petId, data) {
   return request({
     url: `/pet/${petId}/records`,
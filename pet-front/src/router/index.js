@@ -142,6 +142,11 @@ router.beforeEach((to) => {
     } catch (e) {
       localStorage.removeItem('user')
     }
+    // 旧版本保存的登录信息没有令牌，需要重新登录
+    if (user && !user.token) {
+      localStorage.removeItem('user')
+      user = null
+    }
   }
 
   // 需要登录的页面
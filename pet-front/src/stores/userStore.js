@@ -10,7 +10,10 @@ const userState = ref(null)
 const stored = localStorage.getItem('user')
 if (stored) {
   try {
-    userState.value = JSON.parse(stored)
+    const parsed = JSON.parse(stored)
+    // 旧版本保存的登录信息没有令牌，需要重新登录
+    if (parsed?.token) userState.value = parsed
+    else localStorage.removeItem('user')
   } catch (e) {
     localStorage.removeItem('user')
   }
@@ -26,9 +29,13 @@ export function useUserStore() {
 
   /**
    * 设置用户信息，同步更新响应式状态和 localStorage
+   * 只有登录和修改密码接口返回令牌，资料更新等接口返回的数据沿用当前令牌
    * @param {object} userData - 用户数据
    */
   const setUser = (userData) => {
+    if (userData && !userData.token && userState.value?.token) {
+      userData = { ...userData, token: userState.value.token }
+    }
     userState.value = userData
     if (userData) {
       localStorage.setItem('user', JSON.stringify(userData))
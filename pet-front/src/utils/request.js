@@ -14,11 +14,11 @@ const request = axios.create({
  */
 request.interceptors.request.use(
   (config) => {
-    // 从 localStorage 获取用户信息，添加到请求头
+    // 从 localStorage 获取登录令牌，添加到请求头（后端据此识别用户）
     const userStr = localStorage.getItem('user')
     if (userStr) {
       const user = JSON.parse(userStr)
-      config.headers['X-User-Id'] = user.id
+      if (user.token) config.headers['Authorization'] = `Bearer ${user.token}`
     }
     return config
   },
@@ -35,6 +35,10 @@ request.interceptors.response.use(
     return response.data
   },
   (error) => {
+    // 限流返回 429 时响应体仍是统一的 Result 结构，交给页面显示提示信息
+    if (error.response?.status === 429 && error.response.data?.message) {
+      return error.response.data
+    }
     console.error('请求错误:', error)
     return Promise.reject(error)
   }